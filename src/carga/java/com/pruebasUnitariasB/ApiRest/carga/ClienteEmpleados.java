@@ -0,0 +1,76 @@
+package com.pruebasUnitariasB.ApiRest.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Cada operacion es una peticion HTTP real a api/empleados. Las respuestas se leen enteras (las de los listados
+//se descartan sin parsear) para que el tiempo medido incluya la transferencia del cuerpo.
+final class ClienteEmpleados {
+
+    private static final String JSON = "application/json";
+
+    private final HttpClient http;
+    private final URI base;
+    private final Duration timeout;
+    private final EmpleadosVivos vivos;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong altas = new AtomicLong();
+
+    ClienteEmpleados(URI base, Duration timeout, EmpleadosVivos vivos) {
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+        this.base = base;
+        this.timeout = timeout;
+        this.vivos = vivos;
+    }
+
+    //Devuelve el codigo de estado de la respuesta; vivo es el empleado elegido si la operacion lo necesita
+    int ejecutar(Operacion operacion, EmpleadosVivos.Vivo vivo) throws IOException, InterruptedException {
+        return switch (operacion) {
+            case CREAR -> crear();
+            case OBTENER -> descartar(peticion("/" + vivo.id()).GET());
+            case LISTAR -> descartar(peticion("/pagina?limite=50").GET());
+            case LISTAR_TODOS -> descartar(peticion("").GET());
+            case ACTUALIZAR -> descartar(peticion("/" + vivo.id())
+                    .header("Content-Type", JSON)
+                    .PUT(HttpRequest.BodyPublishers.ofString(cuerpo("Actualizado" + System.nanoTime(), vivo.email()))));
+            case ACTUALIZAR_PARCIAL -> descartar(peticion("/" + vivo.id())
+                    .header("Content-Type", JSON)
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"nombre\":\"Parcial" + System.nanoTime() + "\"}")));
+            case ELIMINAR -> descartar(peticion("/" + vivo.id()).DELETE());
+        };
+    }
+
+    private int crear() throws IOException, InterruptedException {
+        String email = "carga" + altas.incrementAndGet() + "@gmail.com";
+        HttpResponse<byte[]> respuesta = http.send(peticion("")
+                        .header("Content-Type", JSON)
+                        .POST(HttpRequest.BodyPublishers.ofString(cuerpo("Carga", email))).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (respuesta.statusCode() == 201) {
+            vivos.agregar(new EmpleadosVivos.Vivo(objectMapper.readTree(respuesta.body()).get("id").asLong(), email));
+        }
+        return respuesta.statusCode();
+    }
+
+    private HttpRequest.Builder peticion(String ruta) {
+        return HttpRequest.newBuilder(base.resolve("api/empleados" + ruta)).timeout(timeout);
+    }
+
+    private int descartar(HttpRequest.Builder peticion) throws IOException, InterruptedException {
+        return http.send(peticion.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static String cuerpo(String nombre, String email) {
+        return "{\"nombre\":\"" + nombre + "\",\"apellido\":\"Carga\",\"email\":\"" + email + "\"}";
+    }
+}
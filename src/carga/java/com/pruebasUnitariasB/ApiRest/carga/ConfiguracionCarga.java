@@ -0,0 +1,99 @@
+package com.pruebasUnitariasB.ApiRest.carga;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+//Argumentos --carga.*; el resto (--spring.profiles.active=virtual, --empleados.replica.enabled=true...) se
+//pasan tal cual a la aplicacion, por encima de application.properties.
+record ConfiguracionCarga(Duration duracion,
+                          Duration calentamiento,
+                          Duration intervaloReporte,
+                          int concurrencia,
+                          double tasa,
+                          Map<Operacion, Integer> mezcla,
+                          int filasIniciales,
+                          Duration timeout,
+                          Path resultados,
+                          List<String> propiedadesAplicacion) {
+
+    private static final String PREFIJO = "--carga.";
+
+    static ConfiguracionCarga desde(String[] args) {
+        Duration duracion = Duration.ofMinutes(1);
+        Duration calentamiento = Duration.ofSeconds(15);
+        Duration intervaloReporte = Duration.ofSeconds(10);
+        int concurrencia = 32;
+        double tasa = 0;
+        Map<Operacion, Integer> mezcla = mezcla("crear:10,obtener:50,listar:15,actualizar:15,eliminar:10");
+        int filasIniciales = 1000;
+        Duration timeout = Duration.ofSeconds(30);
+        Path resultados = Path.of("target", "carga-resultados.csv");
+        List<String> propiedadesAplicacion = new ArrayList<>();
+
+        for (String arg : args) {
+            if (!arg.startsWith(PREFIJO)) {
+                propiedadesAplicacion.add(arg);
+                continue;
+            }
+            int igual = arg.indexOf('=');
+            if (igual < 0) {
+                throw new IllegalArgumentException("Falta el valor en " + arg);
+            }
+            String clave = arg.substring(PREFIJO.length(), igual);
+            String valor = arg.substring(igual + 1);
+            switch (clave) {
+                case "duracion" -> duracion = Duration.parse(valor);
+                case "calentamiento" -> calentamiento = Duration.parse(valor);
+                case "intervalo-reporte" -> intervaloReporte = Duration.parse(valor);
+                case "concurrencia" -> concurrencia = Integer.parseInt(valor);
+                case "tasa" -> tasa = Double.parseDouble(valor);
+                case "mezcla" -> mezcla = mezcla(valor);
+                case "filas-iniciales" -> filasIniciales = Integer.parseInt(valor);
+                case "timeout" -> timeout = Duration.parse(valor);
+                case "resultados" -> resultados = Path.of(valor);
+                default -> throw new IllegalArgumentException("Opcion de carga desconocida: " + clave);
+            }
+        }
+        if (concurrencia <= 0) {
+            throw new IllegalArgumentException("La concurrencia tiene que ser mayor que 0");
+        }
+        return new ConfiguracionCarga(duracion, calentamiento, intervaloReporte, concurrencia, tasa, mezcla,
+                filasIniciales, timeout, resultados, List.copyOf(propiedadesAplicacion));
+    }
+
+    //Pesos relativos por operacion, p. ej. "crear:10,obtener:50,listarTodos:1"
+    static Map<Operacion, Integer> mezcla(String valor) {
+        Map<Operacion, Integer> mezcla = new EnumMap<>(Operacion.class);
+        for (String parte : valor.split(",")) {
+            String[] claveValor = parte.trim().split(":");
+            if (claveValor.length != 2) {
+                throw new IllegalArgumentException("Mezcla mal formada, se espera operacion:peso: " + parte);
+            }
+            int peso = Integer.parseInt(claveValor[1].trim());
+            if (peso < 0) {
+                throw new IllegalArgumentException("El peso no puede ser negativo: " + parte);
+            }
+            mezcla.put(Operacion.desde(claveValor[0].trim()), peso);
+        }
+        if (mezcla.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("La mezcla no tiene ninguna operacion con peso");
+        }
+        return mezcla;
+    }
+
+    String describir() {
+        return String.format(Locale.ROOT, "duracion=%s calentamiento=%s concurrencia=%d %s mezcla=%s filas-iniciales=%d",
+                duracion, calentamiento, concurrencia,
+                tasa > 0 ? "tasa=" + tasa + "/s (abierta)" : "sin tasa (cerrada)",
+                mezcla.entrySet().stream()
+                        .map(entrada -> entrada.getKey().nombre() + ":" + entrada.getValue())
+                        .collect(Collectors.joining(",")),
+                filasIniciales);
+    }
+}
@@ -0,0 +1,39 @@
+package com.pruebasUnitariasB.ApiRest.carga;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+//Empleados que el generador sabe que existen, para pedir, actualizar y borrar ids reales. Un borrado saca el
+//empleado antes de enviarse, pero una lectura concurrente puede haberlo elegido ya y recibir 404.
+final class EmpleadosVivos {
+
+    record Vivo(long id, String email) {
+    }
+
+    private final List<Vivo> vivos = new ArrayList<>();
+
+    synchronized void agregar(Vivo vivo) {
+        vivos.add(vivo);
+    }
+
+    synchronized Vivo cualquiera() {
+        return vivos.isEmpty() ? null : vivos.get(ThreadLocalRandom.current().nextInt(vivos.size()));
+    }
+
+    //Se cambia por el ultimo para no desplazar la lista
+    synchronized Vivo sacar() {
+        if (vivos.isEmpty()) {
+            return null;
+        }
+        int i = ThreadLocalRandom.current().nextInt(vivos.size());
+        Vivo vivo = vivos.get(i);
+        vivos.set(i, vivos.get(vivos.size() - 1));
+        vivos.remove(vivos.size() - 1);
+        return vivo;
+    }
+
+    synchronized int cantidad() {
+        return vivos.size();
+    }
+}
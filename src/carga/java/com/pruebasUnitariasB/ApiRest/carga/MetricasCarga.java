@@ -0,0 +1,196 @@
+package com.pruebasUnitariasB.ApiRest.carga;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+//Latencias por operacion en histogramas HdrHistogram (microsegundos) que los hilos registran sin bloquearse;
+//cada intervalo se vacian, se imprimen y, pasado el calentamiento, se suman al total. Junto a cada intervalo se
+//anota el heap y los GC de la JVM, que es la misma de la aplicacion y del generador.
+//Resultado de una peticion: correcta (2xx), rechazo esperable (404/409/412, carreras entre hilos sobre el mismo
+//empleado) o error (cualquier otro codigo, excepcion o timeout).
+final class MetricasCarga {
+
+    private static final String CABECERA_CSV = "segundo,fase,operacion,peticiones,por_segundo,errores,rechazos,"
+            + "p50_ms,p90_ms,p99_ms,p999_ms,max_ms,heap_usado_mb,vivo_tras_gc_mb,gc_cuenta,gc_ms";
+
+    private final Map<Operacion, Recorder> recorders = new EnumMap<>(Operacion.class);
+    private final Map<Operacion, LongAdder> errores = new EnumMap<>(Operacion.class);
+    private final Map<Operacion, LongAdder> rechazos = new EnumMap<>(Operacion.class);
+    private final Map<Operacion, Histogram> intervalos = new EnumMap<>(Operacion.class);
+    private final Map<Operacion, Histogram> totales = new EnumMap<>(Operacion.class);
+    private final Map<Operacion, long[]> totalesContadores = new EnumMap<>(Operacion.class);
+    private final PrintWriter csv;
+    private final long inicio = System.nanoTime();
+
+    private long gcCuentaAnterior;
+    private long gcTiempoAnterior;
+    private long gcCuentaMedicion;
+    private long gcTiempoMedicion;
+    private double vivoInicialMb = -1;
+    private double vivoFinalMb;
+    private double vivoMaximoMb;
+
+    MetricasCarga(Path resultados) throws IOException {
+        for (Operacion operacion : Operacion.values()) {
+            recorders.put(operacion, new Recorder(3));
+            errores.put(operacion, new LongAdder());
+            rechazos.put(operacion, new LongAdder());
+            totales.put(operacion, new Histogram(3));
+            totalesContadores.put(operacion, new long[2]);
+        }
+        if (resultados.getParent() != null) {
+            Files.createDirectories(resultados.getParent());
+        }
+        csv = new PrintWriter(Files.newBufferedWriter(resultados));
+        csv.println(CABECERA_CSV);
+        gcCuentaAnterior = gcCuenta();
+        gcTiempoAnterior = gcTiempo();
+    }
+
+    void registrar(Operacion operacion, long inicioNanos, long finNanos, int estado) {
+        recorders.get(operacion).recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(finNanos - inicioNanos)));
+        if (estado == 404 || estado == 409 || estado == 412) {
+            rechazos.get(operacion).increment();
+        } else if (estado < 200 || estado >= 300) {
+            errores.get(operacion).increment();
+        }
+    }
+
+    //Un solo hilo (el del reporte) llama a cerrarIntervalo y resumen
+    void cerrarIntervalo(double segundos, boolean medicion) {
+        long segundo = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - inicio);
+        long gcCuenta = gcCuenta();
+        long gcTiempo = gcTiempo();
+        long gcCuentaIntervalo = gcCuenta - gcCuentaAnterior;
+        long gcTiempoIntervalo = gcTiempo - gcTiempoAnterior;
+        gcCuentaAnterior = gcCuenta;
+        gcTiempoAnterior = gcTiempo;
+        double heapUsadoMb = mb(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+        double vivoMb = mb(vivoTrasGc());
+        String fase = medicion ? "medicion" : "calentamiento";
+        if (medicion) {
+            gcCuentaMedicion += gcCuentaIntervalo;
+            gcTiempoMedicion += gcTiempoIntervalo;
+            if (vivoInicialMb < 0) {
+                vivoInicialMb = vivoMb;
+            }
+            vivoFinalMb = vivoMb;
+            vivoMaximoMb = Math.max(vivoMaximoMb, vivoMb);
+        }
+
+        long peticiones = 0;
+        long erroresIntervalo = 0;
+        StringBuilder linea = new StringBuilder();
+        for (Operacion operacion : Operacion.values()) {
+            Histogram histograma = recorders.get(operacion).getIntervalHistogram(intervalos.get(operacion));
+            intervalos.put(operacion, histograma);
+            long erroresOperacion = errores.get(operacion).sumThenReset();
+            long rechazosOperacion = rechazos.get(operacion).sumThenReset();
+            long cuenta = histograma.getTotalCount();
+            if (cuenta == 0) {
+                continue;
+            }
+            peticiones += cuenta;
+            erroresIntervalo += erroresOperacion;
+            if (medicion) {
+                totales.get(operacion).add(histograma);
+                totalesContadores.get(operacion)[0] += erroresOperacion;
+                totalesContadores.get(operacion)[1] += rechazosOperacion;
+            }
+            csv.printf(Locale.ROOT, "%d,%s,%s,%d,%.1f,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.1f,%.1f,%d,%d%n",
+                    segundo, fase, operacion.nombre(), cuenta, cuenta / segundos, erroresOperacion, rechazosOperacion,
+                    ms(histograma.getValueAtPercentile(50)), ms(histograma.getValueAtPercentile(90)),
+                    ms(histograma.getValueAtPercentile(99)), ms(histograma.getValueAtPercentile(99.9)),
+                    ms(histograma.getMaxValue()), heapUsadoMb, vivoMb, gcCuentaIntervalo, gcTiempoIntervalo);
+            linea.append(String.format(Locale.ROOT, " %s=%.0f/s p99=%.1fms", operacion.nombre(), cuenta / segundos,
+                    ms(histograma.getValueAtPercentile(99))));
+        }
+        csv.flush();
+        System.out.printf(Locale.ROOT, "[%4ds %s] %.0f pet/s errores=%d heap=%.0fMB vivo=%.0fMB gc=%d (%dms)%s%n",
+                segundo, fase, peticiones / segundos, erroresIntervalo, heapUsadoMb, vivoMb, gcCuentaIntervalo,
+                gcTiempoIntervalo, linea);
+    }
+
+    void resumen(double segundosMedicion) {
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%-12s %10s %9s %8s %8s %9s %9s %9s %9s %9s%n", "operacion", "peticiones",
+                "pet/s", "errores", "rechazos", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        Histogram global = new Histogram(3);
+        long erroresGlobal = 0;
+        long rechazosGlobal = 0;
+        for (Operacion operacion : Operacion.values()) {
+            Histogram total = totales.get(operacion);
+            if (total.getTotalCount() == 0) {
+                continue;
+            }
+            long[] contadores = totalesContadores.get(operacion);
+            imprimir(operacion.nombre(), total, contadores[0], contadores[1], segundosMedicion);
+            global.add(total);
+            erroresGlobal += contadores[0];
+            rechazosGlobal += contadores[1];
+        }
+        imprimir("total", global, erroresGlobal, rechazosGlobal, segundosMedicion);
+        long total = Math.max(1, global.getTotalCount());
+        System.out.printf(Locale.ROOT, "%nTasa de error: %.3f%%  rechazos esperables: %.3f%%%n",
+                100.0 * erroresGlobal / total, 100.0 * rechazosGlobal / total);
+        System.out.printf(Locale.ROOT, "GC en la medicion: %d colecciones, %d ms (%.2f%% del tiempo)%n",
+                gcCuentaMedicion, gcTiempoMedicion, 100.0 * gcTiempoMedicion / (segundosMedicion * 1000));
+        System.out.printf(Locale.ROOT, "Heap vivo tras GC: inicio %.1f MB, final %.1f MB, maximo %.1f MB%n",
+                Math.max(0, vivoInicialMb), vivoFinalMb, vivoMaximoMb);
+        csv.close();
+    }
+
+    private static void imprimir(String nombre, Histogram histograma, long errores, long rechazos, double segundos) {
+        System.out.printf(Locale.ROOT, "%-12s %10d %9.1f %8d %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n", nombre,
+                histograma.getTotalCount(), histograma.getTotalCount() / segundos, errores, rechazos,
+                ms(histograma.getValueAtPercentile(50)), ms(histograma.getValueAtPercentile(90)),
+                ms(histograma.getValueAtPercentile(99)), ms(histograma.getValueAtPercentile(99.9)),
+                ms(histograma.getMaxValue()));
+    }
+
+    //Suma de lo que quedo en cada zona del heap despues de su ultima coleccion: aproxima los datos vivos, y si
+    //sube de forma sostenida durante una prueba larga apunta a una fuga
+    private static long vivoTrasGc() {
+        long vivo = 0;
+        for (MemoryPoolMXBean zona : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage trasGc = zona.getCollectionUsage();
+            if (zona.getType() == MemoryType.HEAP && trasGc != null) {
+                vivo += trasGc.getUsed();
+            }
+        }
+        return vivo;
+    }
+
+    private static long gcCuenta() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount).filter(cuenta -> cuenta > 0).sum();
+    }
+
+    private static long gcTiempo() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime).filter(tiempo -> tiempo > 0).sum();
+    }
+
+    private static double ms(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static double mb(long bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+}
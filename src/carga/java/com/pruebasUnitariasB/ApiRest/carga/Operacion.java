@@ -0,0 +1,63 @@
+package com.pruebasUnitariasB.ApiRest.carga;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+enum Operacion {
+    CREAR("crear"),
+    OBTENER("obtener"),
+    LISTAR("listar"),
+    LISTAR_TODOS("listarTodos"),
+    ACTUALIZAR("actualizar"),
+    ACTUALIZAR_PARCIAL("parcial"),
+    ELIMINAR("eliminar");
+
+    private final String nombre;
+
+    Operacion(String nombre) {
+        this.nombre = nombre;
+    }
+
+    String nombre() {
+        return nombre;
+    }
+
+    //Las que necesitan un empleado existente; sin ninguno vivo se hace un alta en su lugar
+    boolean necesitaId() {
+        return this == OBTENER || this == ACTUALIZAR || this == ACTUALIZAR_PARCIAL || this == ELIMINAR;
+    }
+
+    static Operacion desde(String nombre) {
+        for (Operacion operacion : values()) {
+            if (operacion.nombre.equals(nombre)) {
+                return operacion;
+            }
+        }
+        throw new IllegalArgumentException("Operacion desconocida: " + nombre);
+    }
+
+    //Tabla acumulada de pesos para sortear una operacion por peticion sin recorrer el mapa
+    static final class Sorteo {
+        private final Operacion[] operaciones;
+        private final int[] acumulados;
+
+        Sorteo(Map<Operacion, Integer> mezcla) {
+            operaciones = mezcla.keySet().stream().filter(operacion -> mezcla.get(operacion) > 0).toArray(Operacion[]::new);
+            acumulados = new int[operaciones.length];
+            int total = 0;
+            for (int i = 0; i < operaciones.length; i++) {
+                total += mezcla.get(operaciones[i]);
+                acumulados[i] = total;
+            }
+        }
+
+        Operacion siguiente() {
+            int valor = ThreadLocalRandom.current().nextInt(acumulados[acumulados.length - 1]);
+            int i = 0;
+            while (acumulados[i] <= valor) {
+                i++;
+            }
+            return operaciones[i];
+        }
+    }
+}
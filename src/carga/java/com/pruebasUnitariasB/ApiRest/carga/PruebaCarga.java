@@ -0,0 +1,174 @@
+package com.pruebasUnitariasB.ApiRest.carga;
+
+import com.pruebasUnitariasB.ApiRest.PruebasUnitariasBApplication;
+import com.pruebasUnitariasB.ApiRest.config.HilosVirtualesConfig;
+import com.pruebasUnitariasB.ApiRest.dto.ResultadoLote;
+import com.pruebasUnitariasB.ApiRest.entity.Empleado;
+import com.pruebasUnitariasB.ApiRest.service.EmpleadoService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+//Prueba de carga y de resistencia de api/empleados: arranca la aplicacion en un puerto libre contra una H2 en
+//memoria y la golpea por HTTP con una mezcla de operaciones durante el calentamiento y la duracion indicados.
+//  mvn -Pcarga verify -Dcarga.args="--carga.duracion=PT30M --carga.concurrencia=128 --carga.mezcla=crear:5,obtener:80,eliminar:5,listar:10"
+//La API reactiva (--spring.profiles.active=reactive) no tiene /pagina ni PATCH: la mezcla solo puede usar
+//crear, obtener, listarTodos, actualizar y eliminar.
+//Sin tasa cada hilo lanza la siguiente peticion al terminar la anterior (modelo cerrado). Con --carga.tasa=N cada
+//hilo tiene sus instantes programados para sumar N peticiones/s y la latencia se mide desde el instante previsto,
+//asi un servidor atascado no esconde la espera que habria sufrido un cliente (omision coordinada).
+//Con Java 21 los hilos del generador son virtuales; en Java 17 es un pool fijo del tamanio de la concurrencia.
+public final class PruebaCarga {
+
+    private PruebaCarga() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        ConfiguracionCarga configuracion = ConfiguracionCarga.desde(args);
+        System.out.println("Prueba de carga: " + configuracion.describir());
+
+        try (ConfigurableApplicationContext contexto = arrancar(configuracion.propiedadesAplicacion())) {
+            int puerto = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+            EmpleadosVivos vivos = sembrar(contexto.getBean(EmpleadoService.class), configuracion.filasIniciales());
+            ExecutorService hilos = crearHilos(configuracion.concurrencia());
+            try {
+                ClienteEmpleados cliente = new ClienteEmpleados(URI.create("http://localhost:" + puerto + "/"),
+                        configuracion.timeout(), vivos);
+                ejecutar(configuracion, cliente, vivos, hilos);
+            } finally {
+                hilos.shutdownNow();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext arrancar(List<String> propiedades) {
+        List<String> argumentos = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--spring.datasource.url=jdbc:h2:mem:carga;DB_CLOSE_DELAY=-1",
+                //Con --spring.profiles.active=reactive la API usa R2DBC: tiene que ver la misma base sembrada
+                "--empleados.r2dbc.url=r2dbc:pool:h2:mem:///carga?maxSize=20",
+                //Todas las peticiones llegan como un unico cliente, que se quedaria sin tokens
+                "--empleados.admision.enabled=false"));
+        argumentos.addAll(propiedades);
+        //Sin forzar el tipo de aplicacion: el perfil reactive pide WebFlux y si no se arranca con Tomcat
+        return new SpringApplicationBuilder(PruebasUnitariasBApplication.class)
+                .run(argumentos.toArray(String[]::new));
+    }
+
+    private static EmpleadosVivos sembrar(EmpleadoService empleadoService, int filas) {
+        List<Empleado> empleados = new ArrayList<>(filas);
+        for (int i = 0; i < filas; i++) {
+            empleados.add(Empleado.builder().nombre("Nombre" + i).apellido("Apellido" + i)
+                    .email("inicial" + i + "@gmail.com").build());
+        }
+        EmpleadosVivos vivos = new EmpleadosVivos();
+        for (ResultadoLote resultado : empleadoService.guardarEmpleados(empleados)) {
+            vivos.agregar(new EmpleadosVivos.Vivo(resultado.getId(), empleados.get(resultado.getIndice()).getEmail()));
+        }
+        return vivos;
+    }
+
+    private static ExecutorService crearHilos(int concurrencia) {
+        return Runtime.version().feature() >= 21
+                ? HilosVirtualesConfig.crearEjecutorHilosVirtuales()
+                : Executors.newFixedThreadPool(concurrencia);
+    }
+
+    private static void ejecutar(ConfiguracionCarga configuracion, ClienteEmpleados cliente, EmpleadosVivos vivos,
+                                 ExecutorService hilos) throws Exception {
+        MetricasCarga metricas = new MetricasCarga(configuracion.resultados());
+        Operacion.Sorteo sorteo = new Operacion.Sorteo(configuracion.mezcla());
+        long inicio = System.nanoTime();
+        long finCalentamiento = inicio + configuracion.calentamiento().toNanos();
+        long fin = finCalentamiento + configuracion.duracion().toNanos();
+        //Separacion entre peticiones de un mismo hilo para repartir la tasa total; 0 en el modelo cerrado
+        long periodo = configuracion.tasa() > 0
+                ? (long) (TimeUnit.SECONDS.toNanos(1) * configuracion.concurrencia() / configuracion.tasa())
+                : 0;
+
+        CountDownLatch terminados = new CountDownLatch(configuracion.concurrencia());
+        for (int i = 0; i < configuracion.concurrencia(); i++) {
+            long desfase = periodo * i / configuracion.concurrencia();
+            hilos.execute(() -> {
+                try {
+                    generar(cliente, vivos, sorteo, metricas, inicio + desfase, periodo, fin);
+                } finally {
+                    terminados.countDown();
+                }
+            });
+        }
+
+        //Los reportes se cortan tambien al acabar el calentamiento para que ningun intervalo mezcle las dos fases
+        long intervalo = configuracion.intervaloReporte().toNanos();
+        long ultimoReporte = inicio;
+        double segundosMedicion = 0;
+        boolean terminado = false;
+        while (!terminado) {
+            long siguiente = Math.min(ultimoReporte + intervalo, ultimoReporte < finCalentamiento ? finCalentamiento : fin);
+            terminado = terminados.await(Math.max(0, siguiente - System.nanoTime()), TimeUnit.NANOSECONDS);
+            //Las peticiones en curso al llegar al final entran en el ultimo intervalo
+            if (!terminado && siguiente >= fin) {
+                terminados.await();
+                terminado = true;
+            }
+            long ahora = System.nanoTime();
+            double segundos = (ahora - ultimoReporte) / 1e9;
+            boolean medicion = ultimoReporte >= finCalentamiento;
+            metricas.cerrarIntervalo(segundos, medicion);
+            if (medicion) {
+                segundosMedicion += segundos;
+            }
+            ultimoReporte = ahora;
+        }
+        metricas.resumen(Math.max(segundosMedicion, 1e-3));
+        System.out.printf("Empleados vivos al terminar: %d. Intervalos en %s%n", vivos.cantidad(),
+                configuracion.resultados().toAbsolutePath());
+    }
+
+    private static void generar(ClienteEmpleados cliente, EmpleadosVivos vivos, Operacion.Sorteo sorteo,
+                                MetricasCarga metricas, long primera, long periodo, long fin) {
+        long prevista = primera;
+        while (!Thread.currentThread().isInterrupted()) {
+            if (periodo > 0) {
+                long espera;
+                while ((espera = prevista - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(espera);
+                }
+            }
+            long inicio = periodo > 0 ? prevista : System.nanoTime();
+            if (inicio >= fin) {
+                return;
+            }
+            Operacion operacion = sorteo.siguiente();
+            EmpleadosVivos.Vivo vivo = null;
+            if (operacion.necesitaId()) {
+                vivo = operacion == Operacion.ELIMINAR ? vivos.sacar() : vivos.cualquiera();
+                if (vivo == null) {
+                    operacion = Operacion.CREAR;
+                }
+            }
+            int estado;
+            try {
+                estado = cliente.ejecutar(operacion, vivo);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                estado = -1;
+            }
+            metricas.registrar(operacion, inicio, System.nanoTime(), estado);
+            prevista += periodo;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.pruebasUnitariasB.ApiRest.cds;
+
+import com.pruebasUnitariasB.ApiRest.PruebasUnitariasBApplication;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+//Ejecucion de entrenamiento del archivo CDS (perfil maven "cds"): arranca la aplicacion, hace unas peticiones
+//para cargar tambien las clases de la primera peticion y la cierra, momento en que la JVM vuelca el archivo.
+//Solo se compila con ese perfil, asi que no forma parte del jar normal ni de sus beans.
+public final class EntrenamientoCds {
+    private static final Logger log = LoggerFactory.getLogger(EntrenamientoCds.class);
+
+    private EntrenamientoCds() {
+    }
+
+    public static void main(String[] args) {
+        ConfigurableApplicationContext contexto = SpringApplication.run(PruebasUnitariasBApplication.class, args);
+        String base = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port") + "/api/empleados";
+        HttpClient cliente = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        try {
+            enviar(cliente, HttpRequest.newBuilder(URI.create(base))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"nombre\":\"Cds\",\"apellido\":\"Entrenamiento\",\"email\":\"cds@entrenamiento.local\"}")));
+            enviar(cliente, HttpRequest.newBuilder(URI.create(base)).GET());
+            enviar(cliente, HttpRequest.newBuilder(URI.create(base + "/pagina")).GET());
+            enviar(cliente, HttpRequest.newBuilder(URI.create(base + "/buscar?campo=nombre&prefijo=c")).GET());
+        } catch (IOException e) {
+            log.warn("Fallo una peticion de entrenamiento CDS", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.exit(SpringApplication.exit(contexto));
+    }
+
+    private static void enviar(HttpClient cliente, HttpRequest.Builder peticion) throws IOException, InterruptedException {
+        HttpResponse<Void> respuesta = cliente.send(peticion.timeout(Duration.ofSeconds(10)).build(),
+                HttpResponse.BodyHandlers.discarding());
+        log.info("Entrenamiento CDS {} {} -> {}", respuesta.request().method(), respuesta.uri(), respuesta.statusCode());
+    }
+}
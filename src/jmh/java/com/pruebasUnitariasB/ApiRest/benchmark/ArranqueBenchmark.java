@@ -0,0 +1,49 @@
+package com.pruebasUnitariasB.ApiRest.benchmark;
+
+import com.pruebasUnitariasB.ApiRest.service.EmpleadoService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+//Tiempo de arranque hasta aceptar peticiones. En memoria cada arranque parte de una base vacia y ejecuta las
+//migraciones; en archivo la base ya existe con datos, Flyway solo valida y se carga el indice de emails.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ArranqueBenchmark {
+    private static final String BASE_DATOS = "jmh-arranque";
+
+    @Param({ContextoBenchmark.MEMORIA, ContextoBenchmark.ARCHIVO})
+    private String modo;
+
+    @Param({"10000"})
+    private int filas;
+
+    private int arranques;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        if (ContextoBenchmark.ARCHIVO.equals(modo)) {
+            try (ConfigurableApplicationContext contexto = ContextoBenchmark.arrancar(modo, BASE_DATOS, WebApplicationType.NONE)) {
+                contexto.getBean(EmpleadoService.class).guardarEmpleados(ContextoBenchmark.empleados("arranque", filas));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void limpiar() throws IOException {
+        ContextoBenchmark.borrarBase(BASE_DATOS);
+    }
+
+    @Benchmark
+    public void arrancarYParar() {
+        String baseDatos = ContextoBenchmark.MEMORIA.equals(modo) ? BASE_DATOS + "-" + (++arranques) : BASE_DATOS;
+        ContextoBenchmark.arrancar(modo, baseDatos, WebApplicationType.SERVLET).close();
+    }
+}
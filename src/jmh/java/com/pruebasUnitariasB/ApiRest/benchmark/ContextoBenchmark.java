@@ -0,0 +1,83 @@
+package com.pruebasUnitariasB.ApiRest.benchmark;
+
+import com.pruebasUnitariasB.ApiRest.PruebasUnitariasBApplication;
+import com.pruebasUnitariasB.ApiRest.entity.Empleado;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+//Arranca la aplicacion real contra una base H2 propia de cada benchmark: en memoria o, en modo archivo,
+//con el perfil produccion y los ficheros en un directorio temporal del proceso
+final class ContextoBenchmark {
+    static final String MEMORIA = "memoria";
+    static final String ARCHIVO = "archivo";
+
+    private ContextoBenchmark() {
+    }
+
+    static ConfigurableApplicationContext arrancar(String baseDatos, WebApplicationType tipo, String... propiedades) {
+        return arrancar(MEMORIA, baseDatos, tipo, propiedades);
+    }
+
+    static ConfigurableApplicationContext arrancar(String modo, String baseDatos, WebApplicationType tipo,
+                                                  String... propiedades) {
+        List<String> configuracion = new ArrayList<>(List.of(
+                "server.port=0",
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN",
+                //Un solo cliente golpeando la API agotaria sus tokens y se mediria el rechazo
+                "empleados.admision.enabled=false"));
+        if (ARCHIVO.equals(modo)) {
+            configuracion.add("spring.profiles.active=produccion");
+            configuracion.add("empleados.h2.directorio=" + directorio(baseDatos));
+        } else {
+            configuracion.add("spring.datasource.url=jdbc:h2:mem:" + baseDatos + ";DB_CLOSE_DELAY=-1");
+        }
+        configuracion.addAll(List.of(propiedades));
+        //Como argumentos de linea de comandos para que tengan prioridad sobre application.properties
+        return new SpringApplicationBuilder(PruebasUnitariasBApplication.class)
+                .web(tipo)
+                .run(configuracion.stream().map(propiedad -> "--" + propiedad).toArray(String[]::new));
+    }
+
+    static void borrarBase(String baseDatos) throws IOException {
+        Path directorio = directorio(baseDatos);
+        if (Files.exists(directorio)) {
+            try (Stream<Path> ficheros = Files.walk(directorio)) {
+                for (Path fichero : ficheros.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(fichero);
+                }
+            }
+        }
+        try {
+            Files.deleteIfExists(directorio.getParent());
+        } catch (DirectoryNotEmptyException e) {
+            //Quedan bases de otros benchmarks del mismo proceso
+        }
+    }
+
+    private static Path directorio(String baseDatos) {
+        return Path.of(System.getProperty("java.io.tmpdir"), "jmh-h2-" + ProcessHandle.current().pid(), baseDatos);
+    }
+
+    static List<Empleado> empleados(String prefijo, int cantidad) {
+        List<Empleado> empleados = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            empleados.add(Empleado.builder()
+                    .nombre("Nombre" + i)
+                    .apellido("Apellido" + i)
+                    .email(prefijo + i + "@gmail.com")
+                    .build());
+        }
+        return empleados;
+    }
+}
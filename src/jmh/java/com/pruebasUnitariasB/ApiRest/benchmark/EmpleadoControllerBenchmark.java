@@ -0,0 +1,98 @@
+package com.pruebasUnitariasB.ApiRest.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pruebasUnitariasB.ApiRest.dto.ResultadoLote;
+import com.pruebasUnitariasB.ApiRest.entity.Empleado;
+import com.pruebasUnitariasB.ApiRest.service.EmpleadoService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+//Ida y vuelta completa por EmpleadoController: DispatcherServlet, Jackson, servicio y H2
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmpleadoControllerBenchmark {
+
+    private static final int TAMANIO_TABLA = 1000;
+
+    private ConfigurableApplicationContext contexto;
+    private MockMvc mockMvc;
+    private ObjectMapper objectMapper;
+    private List<Long> ids;
+    private final AtomicLong secuencia = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void arrancar() {
+        contexto = ContextoBenchmark.arrancar("jmh-controller", WebApplicationType.SERVLET);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) contexto).build();
+        objectMapper = contexto.getBean(ObjectMapper.class);
+        ids = contexto.getBean(EmpleadoService.class)
+                .guardarEmpleados(ContextoBenchmark.empleados("controller", TAMANIO_TABLA)).stream()
+                .map(ResultadoLote::getId)
+                .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        contexto.close();
+    }
+
+    private Long idAleatorio() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    @Benchmark
+    public MvcResult obtenerPorId() throws Exception {
+        return mockMvc.perform(get("/api/empleados/{id}", idAleatorio())).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult listarTodos() throws Exception {
+        return mockMvc.perform(get("/api/empleados")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult listarPagina() throws Exception {
+        return mockMvc.perform(get("/api/empleados/pagina").param("limite", "50")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult guardar() throws Exception {
+        Empleado empleado = Empleado.builder()
+                .nombre("Nuevo")
+                .apellido("Empleado")
+                .email("mvc" + secuencia.incrementAndGet() + "@gmail.com")
+                .build();
+        return mockMvc.perform(post("/api/empleados")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(empleado))).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult actualizar() throws Exception {
+        Empleado cambios = Empleado.builder()
+                .nombre("Actualizado" + secuencia.incrementAndGet())
+                .apellido("Empleado")
+                .email("actualizado" + secuencia.incrementAndGet() + "@gmail.com")
+                .build();
+        return mockMvc.perform(put("/api/empleados/{id}", idAleatorio())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(cambios))).andReturn();
+    }
+}
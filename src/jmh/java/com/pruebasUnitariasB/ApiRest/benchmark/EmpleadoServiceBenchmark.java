@@ -0,0 +1,110 @@
+package com.pruebasUnitariasB.ApiRest.benchmark;
+
+import com.pruebasUnitariasB.ApiRest.dto.CampoBusqueda;
+import com.pruebasUnitariasB.ApiRest.dto.EmpleadoResumen;
+import com.pruebasUnitariasB.ApiRest.dto.ResultadoLote;
+import com.pruebasUnitariasB.ApiRest.entity.Empleado;
+import com.pruebasUnitariasB.ApiRest.service.EmpleadoService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmpleadoServiceBenchmark {
+
+    @Param({"1000", "10000"})
+    private int tamanioTabla;
+
+    //-p modo=memoria,archivo compara la base en memoria con el perfil produccion en fichero
+    @Param({ContextoBenchmark.MEMORIA})
+    private String modo;
+
+    private ConfigurableApplicationContext contexto;
+    private EmpleadoService empleadoService;
+    private List<Long> ids;
+    private final AtomicLong secuencia = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void arrancar() {
+        contexto = ContextoBenchmark.arrancar(modo, baseDatos(), WebApplicationType.NONE);
+        empleadoService = contexto.getBean(EmpleadoService.class);
+        ids = empleadoService.guardarEmpleados(ContextoBenchmark.empleados("base", tamanioTabla)).stream()
+                .map(ResultadoLote::getId)
+                .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() throws IOException {
+        contexto.close();
+        ContextoBenchmark.borrarBase(baseDatos());
+    }
+
+    private String baseDatos() {
+        return "jmh-servicio-" + tamanioTabla;
+    }
+
+    private Long idAleatorio() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    @Benchmark
+    public Empleado guardar() {
+        long n = secuencia.incrementAndGet();
+        return empleadoService.guardarEmpleado(Empleado.builder()
+                .nombre("Nuevo")
+                .apellido("Empleado")
+                .email("nuevo" + n + "@gmail.com")
+                .build());
+    }
+
+    @Benchmark
+    public Empleado obtenerPorId() {
+        return empleadoService.getEmpleadoById(idAleatorio()).orElseThrow();
+    }
+
+    @Benchmark
+    public List<Empleado> listarTodos() {
+        return empleadoService.getAllEmpleados();
+    }
+
+    //Comparar con listarTodos usando -prof gc para ver la asignacion por fila de entidades frente a proyecciones
+    @Benchmark
+    public List<EmpleadoResumen> listarResumen() {
+        return empleadoService.getResumenEmpleados();
+    }
+
+    @Benchmark
+    public List<EmpleadoResumen> listarPagina() {
+        return empleadoService.getEmpleadosPaginados(null, 50).getContenido();
+    }
+
+    @Benchmark
+    public List<EmpleadoResumen> buscarPorPrefijo() {
+        return empleadoService.buscarEmpleados(CampoBusqueda.NOMBRE, "nombre" + ThreadLocalRandom.current().nextInt(100),
+                null, 50).getContenido();
+    }
+
+    @Benchmark
+    public Empleado actualizar() {
+        Empleado empleado = empleadoService.getEmpleadoById(idAleatorio()).orElseThrow();
+        empleado.setNombre("Actualizado" + secuencia.incrementAndGet());
+        return empleadoService.updateEmpleado(empleado);
+    }
+
+    @Benchmark
+    public void guardarYEliminar() {
+        Empleado empleado = guardar();
+        empleadoService.deleteEmpleado(empleado.getId());
+    }
+}
@@ -0,0 +1,110 @@
+package com.pruebasUnitariasB.ApiRest.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.pruebasUnitariasB.ApiRest.entity.Empleado;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+//Compara JSON con CBOR y Smile (los mismos ObjectMapper que usan los conversores) y el coste de agregar gzip.
+//Los metodos *EnStream escriben en un buffer reutilizado, como hacen los conversores sobre la respuesta.
+//Al preparar cada tamanio de lista se imprime cuanto ocupa la lista en cada formato.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacionBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int tamanioLista;
+
+    private ObjectMapper objectMapper;
+    private ObjectMapper cborMapper;
+    private ObjectMapper smileMapper;
+    private List<Empleado> empleados;
+    private ByteArrayOutputStream buffer;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        cborMapper = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+        smileMapper = Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+        empleados = ContextoBenchmark.empleados("serializacion", tamanioLista);
+        for (int i = 0; i < empleados.size(); i++) {
+            empleados.get(i).setId((long) i + 1);
+        }
+        buffer = new ByteArrayOutputStream(objectMapper.writeValueAsBytes(empleados).length * 2);
+        System.out.printf("%n%d empleados (bytes): json=%d cbor=%d smile=%d json+gzip=%d cbor+gzip=%d smile+gzip=%d%n",
+                tamanioLista, objectMapper.writeValueAsBytes(empleados).length,
+                cborMapper.writeValueAsBytes(empleados).length, smileMapper.writeValueAsBytes(empleados).length,
+                comprimido(objectMapper), comprimido(cborMapper), comprimido(smileMapper));
+    }
+
+    private int comprimido(ObjectMapper mapper) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(salida)) {
+            mapper.writeValue(gzip, empleados);
+        }
+        return salida.size();
+    }
+
+    private int escribir(ObjectMapper mapper) throws IOException {
+        buffer.reset();
+        mapper.writeValue(buffer, empleados);
+        return buffer.size();
+    }
+
+    private int escribirComprimido(ObjectMapper mapper) throws IOException {
+        buffer.reset();
+        try (OutputStream gzip = new GZIPOutputStream(buffer, 8192)) {
+            mapper.writeValue(gzip, empleados);
+        }
+        return buffer.size();
+    }
+
+    @Benchmark
+    public byte[] serializarJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(empleados);
+    }
+
+    @Benchmark
+    public int serializarJsonEnStream() throws IOException {
+        return escribir(objectMapper);
+    }
+
+    @Benchmark
+    public int serializarCborEnStream() throws IOException {
+        return escribir(cborMapper);
+    }
+
+    @Benchmark
+    public int serializarSmileEnStream() throws IOException {
+        return escribir(smileMapper);
+    }
+
+    @Benchmark
+    public int serializarJsonGzip() throws IOException {
+        return escribirComprimido(objectMapper);
+    }
+
+    @Benchmark
+    public int serializarCborGzip() throws IOException {
+        return escribirComprimido(cborMapper);
+    }
+
+    @Benchmark
+    public int serializarSmileGzip() throws IOException {
+        return escribirComprimido(smileMapper);
+    }
+}
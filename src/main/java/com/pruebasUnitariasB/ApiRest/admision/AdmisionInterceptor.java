@@ -0,0 +1,65 @@
+package com.pruebasUnitariasB.ApiRest.admision;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+//El endpoint es el nombre del metodo del controlador; el cliente lo decide IdentificacionCliente.
+//Las peticiones asincronas (SSE y long-poll) liberan su plaza al quedar en espera y no se vuelven a
+//comprobar en el despacho final.
+public class AdmisionInterceptor implements AsyncHandlerInterceptor {
+    private static final String ATRIBUTO_ENDPOINT = AdmisionInterceptor.class.getName() + ".endpoint";
+
+    private final ControlAdmision controlAdmision;
+    private final IdentificacionCliente identificacion;
+
+    public AdmisionInterceptor(ControlAdmision controlAdmision, IdentificacionCliente identificacion) {
+        this.controlAdmision = controlAdmision;
+        this.identificacion = identificacion;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!(handler instanceof HandlerMethod metodo) || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        String endpoint = metodo.getMethod().getName();
+        long espera = controlAdmision.consumirToken(identificacion.cliente(request), endpoint);
+        if (espera > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(espera + 999_999_999))));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Limite de peticiones superado");
+            return false;
+        }
+        if (!controlAdmision.entrar(endpoint)) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Servicio saturado");
+            return false;
+        }
+        request.setAttribute(ATRIBUTO_ENDPOINT, endpoint);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        salir(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        salir(request);
+    }
+
+    private void salir(HttpServletRequest request) {
+        if (request.getAttribute(ATRIBUTO_ENDPOINT) instanceof String endpoint) {
+            request.removeAttribute(ATRIBUTO_ENDPOINT);
+            controlAdmision.salir(endpoint);
+        }
+    }
+}
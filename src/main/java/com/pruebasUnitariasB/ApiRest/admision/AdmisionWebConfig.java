@@ -0,0 +1,30 @@
+package com.pruebasUnitariasB.ApiRest.admision;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+//Igual que las metricas, los tests @WebMvcTest no cargan el ControlAdmision y el interceptor no se registra
+@Configuration
+public class AdmisionWebConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<ControlAdmision> controlAdmision;
+    private final IdentificacionCliente identificacion;
+
+    public AdmisionWebConfig(ObjectProvider<ControlAdmision> controlAdmision,
+                             @Value("${empleados.admision.cabecera-cliente:X-Cliente-Id}") String cabeceraCliente,
+                             @Value("${empleados.admision.confiar-cabecera-cliente:false}") boolean confiarCabecera) {
+        this.controlAdmision = controlAdmision;
+        this.identificacion = new IdentificacionCliente(cabeceraCliente, confiarCabecera);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        controlAdmision.ifAvailable(control -> registry.addInterceptor(new AdmisionInterceptor(control, identificacion))
+                .addPathPatterns("/api/**")
+                .order(Ordered.HIGHEST_PRECEDENCE));
+    }
+}
@@ -0,0 +1,139 @@
+package com.pruebasUnitariasB.ApiRest.admision;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+//Limites de la API por cliente y endpoint (cubos de tokens) y de peticiones simultaneas. La concurrencia maxima
+//queda por debajo del pool de Hikari para rechazar con 503 antes de que las peticiones esperen una conexion.
+//Los endpoints "pesados" (listados completos, exportacion, importacion y lotes) tienen limites propios mas bajos.
+@Component
+@ConditionalOnProperty(name = "empleados.admision.enabled", havingValue = "true")
+public class ControlAdmision implements MeterBinder {
+    public static final String METRICA_RECHAZOS = "empleados.admision.rechazos";
+
+    private final Cache<String, CuboTokens> cubos;
+    private final double tasa;
+    private final int rafaga;
+    private final double tasaPesadas;
+    private final int rafagaPesadas;
+    private final Set<String> endpointsPesados;
+    private final int concurrenciaMaxima;
+    private final Semaphore concurrencia;
+    private final Semaphore concurrenciaPesadas;
+    private final Duration esperaMaxima;
+
+    private volatile MeterRegistry meterRegistry;
+
+    public ControlAdmision(@Value("${empleados.admision.tasa:50}") double tasa,
+                           @Value("${empleados.admision.rafaga:100}") int rafaga,
+                           @Value("${empleados.admision.pesadas.tasa:1}") double tasaPesadas,
+                           @Value("${empleados.admision.pesadas.rafaga:5}") int rafagaPesadas,
+                           @Value("${empleados.admision.pesadas.endpoints:}") Set<String> endpointsPesados,
+                           @Value("${empleados.admision.concurrencia-maxima:8}") int concurrenciaMaxima,
+                           @Value("${empleados.admision.pesadas.concurrencia-maxima:2}") int concurrenciaPesadas,
+                           @Value("${empleados.admision.espera-maxima:PT0.1S}") Duration esperaMaxima,
+                           @Value("${empleados.admision.clientes-maximos:100000}") long clientesMaximos) {
+        this.cubos = Caffeine.newBuilder()
+                .maximumSize(clientesMaximos)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+        this.tasa = tasa;
+        this.rafaga = rafaga;
+        this.tasaPesadas = tasaPesadas;
+        this.rafagaPesadas = rafagaPesadas;
+        this.endpointsPesados = Set.copyOf(endpointsPesados);
+        this.concurrenciaMaxima = concurrenciaMaxima;
+        this.concurrencia = new Semaphore(concurrenciaMaxima);
+        this.concurrenciaPesadas = new Semaphore(concurrenciaPesadas);
+        this.esperaMaxima = esperaMaxima;
+    }
+
+    //0 si el cliente tiene un token para el endpoint; si no, los nanosegundos hasta el siguiente
+    public long consumirToken(String cliente, String endpoint) {
+        return consumirToken(cliente, endpoint, System.nanoTime());
+    }
+
+    long consumirToken(String cliente, String endpoint, long ahora) {
+        boolean pesada = esPesada(endpoint);
+        CuboTokens cubo = cubos.get(cliente + '|' + endpoint, clave -> pesada
+                ? new CuboTokens(tasaPesadas, rafagaPesadas, ahora)
+                : new CuboTokens(tasa, rafaga, ahora));
+        long espera = cubo.consumir(ahora);
+        if (espera > 0) {
+            rechazo("tasa", endpoint);
+        }
+        return espera;
+    }
+
+    //Si devuelve true hay que llamar a salir(endpoint) al terminar la peticion
+    public boolean entrar(String endpoint) {
+        boolean pesada = esPesada(endpoint);
+        try {
+            if (pesada && !concurrenciaPesadas.tryAcquire(esperaMaxima.toNanos(), TimeUnit.NANOSECONDS)) {
+                rechazo("concurrencia", endpoint);
+                return false;
+            }
+            if (!concurrencia.tryAcquire(esperaMaxima.toNanos(), TimeUnit.NANOSECONDS)) {
+                if (pesada) {
+                    concurrenciaPesadas.release();
+                }
+                rechazo("concurrencia", endpoint);
+                return false;
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public void salir(String endpoint) {
+        concurrencia.release();
+        if (esPesada(endpoint)) {
+            concurrenciaPesadas.release();
+        }
+    }
+
+    public int enCurso() {
+        return concurrenciaMaxima - concurrencia.availablePermits();
+    }
+
+    private boolean esPesada(String endpoint) {
+        return endpointsPesados.contains(endpoint);
+    }
+
+    private void rechazo(String motivo, String endpoint) {
+        MeterRegistry registro = meterRegistry;
+        if (registro != null) {
+            Counter.builder(METRICA_RECHAZOS)
+                    .description("Peticiones rechazadas por el control de admision")
+                    .tag("motivo", motivo)
+                    .tag("endpoint", endpoint)
+                    .register(registro)
+                    .increment();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        Gauge.builder("empleados.admision.en.curso", this, ControlAdmision::enCurso)
+                .description("Peticiones admitidas que aun no han terminado")
+                .register(registry);
+        Gauge.builder("empleados.admision.clientes", cubos, Cache::estimatedSize)
+                .description("Cubos de tokens de cliente y endpoint en memoria")
+                .register(registry);
+    }
+}
@@ -0,0 +1,36 @@
+package com.pruebasUnitariasB.ApiRest.admision;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+//Cubo de tokens sin bloqueos: en vez de contar tokens guarda el instante teorico en que el cubo estaria lleno
+//otra vez (algoritmo GCRA), asi consumir es un solo compareAndSet sobre un long.
+public final class CuboTokens {
+
+    private final long intervalo;
+    private final long tolerancia;
+    private final AtomicLong llegadaTeorica;
+
+    public CuboTokens(double tasaPorSegundo, int capacidad, long ahora) {
+        if (tasaPorSegundo <= 0 || capacidad < 1) {
+            throw new IllegalArgumentException("La tasa debe ser positiva y la capacidad al menos 1");
+        }
+        this.intervalo = Math.max(1, Math.round(1_000_000_000d / tasaPorSegundo));
+        this.tolerancia = intervalo * (capacidad - 1);
+        this.llegadaTeorica = new AtomicLong(ahora);
+    }
+
+    //0 si se ha consumido un token; si no, los nanosegundos que faltan para que haya uno
+    public long consumir(long ahora) {
+        while (true) {
+            long actual = llegadaTeorica.get();
+            long base = actual - ahora > 0 ? actual : ahora;
+            long espera = base - tolerancia - ahora;
+            if (espera > 0) {
+                return espera;
+            }
+            if (llegadaTeorica.compareAndSet(actual, base + intervalo)) {
+                return 0;
+            }
+        }
+    }
+}
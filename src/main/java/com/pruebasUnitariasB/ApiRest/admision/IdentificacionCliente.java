@@ -0,0 +1,30 @@
+package com.pruebasUnitariasB.ApiRest.admision;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.security.Principal;
+
+//Clave del cliente para la admision y para la lectura de escrituras de la replica. La cabecera la pone quien
+//hace la peticion, asi que solo se usa si hay delante un proxy de confianza que la fija (y borra la del cliente);
+//si no, cada cambio de valor daria un cubo de tokens nuevo. Sin ella: el usuario autenticado o la IP remota.
+public class IdentificacionCliente {
+
+    private final String cabeceraCliente;
+    private final boolean confiarCabecera;
+
+    public IdentificacionCliente(String cabeceraCliente, boolean confiarCabecera) {
+        this.cabeceraCliente = cabeceraCliente;
+        this.confiarCabecera = confiarCabecera;
+    }
+
+    public String cliente(HttpServletRequest request) {
+        if (confiarCabecera) {
+            String cliente = request.getHeader(cabeceraCliente);
+            if (cliente != null && !cliente.isBlank()) {
+                return cliente;
+            }
+        }
+        Principal usuario = request.getUserPrincipal();
+        return usuario != null ? "usuario:" + usuario.getName() : request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,14 @@
+package com.pruebasUnitariasB.ApiRest.cache;
+
+import com.pruebasUnitariasB.ApiRest.entity.CambioEmpleado;
+
+import java.util.List;
+
+//Transporte de invalidaciones de cache entre nodos. publicar recibe los cambios que este nodo acaba de
+//confirmar; los receptores suscritos reciben solo los de los demas nodos.
+public interface CanalInvalidaciones {
+
+    void publicar(List<CambioEmpleado> cambios);
+
+    void suscribir(ReceptorInvalidaciones receptor);
+}
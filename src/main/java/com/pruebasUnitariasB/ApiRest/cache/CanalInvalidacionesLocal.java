@@ -0,0 +1,44 @@
+package com.pruebasUnitariasB.ApiRest.cache;
+
+import com.pruebasUnitariasB.ApiRest.entity.CambioEmpleado;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+//Canal en memoria compartido por todos los contextos de la misma JVM: sustituye a un broker en los tests
+//con varios nodos. Entrega en el momento, en el hilo que confirma el cambio.
+@Component
+@ConditionalOnProperty(name = "empleados.cache.coherencia.canal", havingValue = "local")
+public class CanalInvalidacionesLocal implements CanalInvalidaciones, DisposableBean {
+
+    private static final List<CanalInvalidacionesLocal> NODOS = new CopyOnWriteArrayList<>();
+
+    private final List<ReceptorInvalidaciones> receptores = new CopyOnWriteArrayList<>();
+
+    public CanalInvalidacionesLocal() {
+        NODOS.add(this);
+    }
+
+    @Override
+    public void publicar(List<CambioEmpleado> cambios) {
+        List<Long> ids = cambios.stream().map(CambioEmpleado::getEmpleadoId).distinct().toList();
+        for (CanalInvalidacionesLocal nodo : NODOS) {
+            if (nodo != this) {
+                nodo.receptores.forEach(receptor -> receptor.invalidar(ids));
+            }
+        }
+    }
+
+    @Override
+    public void suscribir(ReceptorInvalidaciones receptor) {
+        receptores.add(receptor);
+    }
+
+    @Override
+    public void destroy() {
+        NODOS.remove(this);
+    }
+}
@@ -0,0 +1,133 @@
+package com.pruebasUnitariasB.ApiRest.cache;
+
+import com.pruebasUnitariasB.ApiRest.entity.CambioEmpleado;
+import com.pruebasUnitariasB.ApiRest.repository.CambioEmpleadoRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+//Canal sin broker: cada nodo sondea el outbox de cambios (cambios_empleados), que todos escriben ya en la
+//transaccion del cambio, por la columna orden que asigna la base de datos al insertar. Como RegistroCambios,
+//no da por leido lo que aun puede confirmarse: un orden que falta por debajo del ultimo leido es una transaccion
+//abierta o deshecha, asi que se guarda como hueco y se vuelve a buscar en cada sondeo hasta que aparece o pasa
+//espera-huecos (la duracion maxima de una transaccion). Los cambios nuevos se leen por paginas y se invalidan
+//pagina a pagina, sin vaciar la cache aunque haya muchos.
+//Una lectura obsoleta dura como mucho un intervalo de sondeo (la metrica de retraso lo muestra).
+@Component
+@ConditionalOnProperty(name = "empleados.cache.coherencia.canal", havingValue = "tabla")
+public class CanalInvalidacionesTabla implements CanalInvalidaciones, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(CanalInvalidacionesTabla.class);
+
+    private final CambioEmpleadoRepository cambioEmpleadoRepository;
+    private final Duration esperaHuecos;
+    private final int tamanioLote;
+
+    private final List<ReceptorInvalidaciones> receptores = new CopyOnWriteArrayList<>();
+    //Secuencias escritas por este nodo, que ya invalido al escribirlas; con su fecha para podar
+    private final ConcurrentHashMap<Long, Instant> propias = new ConcurrentHashMap<>();
+    //Solo los toca el hilo del sondeo (fixedDelay no solapa ejecuciones)
+    private final TreeMap<Long, Instant> huecos = new TreeMap<>();
+    private long ultimoOrden = -1;
+    private volatile int huecosPendientes;
+    private volatile Instant ultimoSondeo = Instant.now();
+
+    public CanalInvalidacionesTabla(CambioEmpleadoRepository cambioEmpleadoRepository,
+                                    @Value("${empleados.cache.coherencia.espera-huecos:PT30S}") Duration esperaHuecos,
+                                    @Value("${empleados.cache.coherencia.tamanio-lote:1000}") int tamanioLote) {
+        this.cambioEmpleadoRepository = cambioEmpleadoRepository;
+        this.esperaHuecos = esperaHuecos;
+        this.tamanioLote = tamanioLote;
+    }
+
+    //Los cambios propios ya se invalidaron al escribirlos
+    @Override
+    public void publicar(List<CambioEmpleado> cambios) {
+        cambios.forEach(cambio -> propias.put(cambio.getSecuencia(), cambio.getFecha()));
+    }
+
+    @Override
+    public void suscribir(ReceptorInvalidaciones receptor) {
+        receptores.add(receptor);
+    }
+
+    //Si falla, el siguiente sondeo sigue desde la ultima pagina aplicada
+    @Scheduled(fixedDelayString = "${empleados.cache.coherencia.intervalo:PT1S}")
+    public void sondear() {
+        Instant inicio = Instant.now();
+        try {
+            //Al arrancar la cache esta vacia: lo anterior no hace falta leerlo
+            if (ultimoOrden < 0) {
+                ultimoOrden = cambioEmpleadoRepository.findUltimoOrden();
+            }
+            leerHuecos();
+            List<CambioEmpleado> pagina;
+            do {
+                pagina = cambioEmpleadoRepository.findCambiosDesdeOrden(ultimoOrden, PageRequest.of(0, tamanioLote));
+                for (CambioEmpleado cambio : pagina) {
+                    for (long orden = ultimoOrden + 1; orden < cambio.getOrden(); orden++) {
+                        huecos.put(orden, inicio);
+                    }
+                    ultimoOrden = cambio.getOrden();
+                }
+                invalidar(pagina);
+            } while (pagina.size() == tamanioLote);
+
+            Instant limite = inicio.minus(esperaHuecos);
+            huecos.values().removeIf(detectado -> detectado.isBefore(limite));
+            propias.values().removeIf(fecha -> fecha.isBefore(limite));
+            huecosPendientes = huecos.size();
+            ultimoSondeo = inicio;
+        } catch (RuntimeException e) {
+            log.warn("No se pudo leer el outbox para invalidar la cache", e);
+        }
+    }
+
+    private void leerHuecos() {
+        List<Long> pendientes = new ArrayList<>(huecos.keySet());
+        for (int desde = 0; desde < pendientes.size(); desde += tamanioLote) {
+            List<CambioEmpleado> encontrados = cambioEmpleadoRepository.findCambiosPorOrden(
+                    pendientes.subList(desde, Math.min(desde + tamanioLote, pendientes.size())));
+            encontrados.forEach(cambio -> huecos.remove(cambio.getOrden()));
+            invalidar(encontrados);
+        }
+    }
+
+    private void invalidar(List<CambioEmpleado> cambios) {
+        List<Long> ids = cambios.stream()
+                .filter(cambio -> propias.remove(cambio.getSecuencia()) == null)
+                .map(CambioEmpleado::getEmpleadoId)
+                .distinct()
+                .toList();
+        if (!ids.isEmpty()) {
+            receptores.forEach(receptor -> receptor.invalidar(ids));
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("empleados.cache.coherencia.retraso", this,
+                        canal -> Duration.between(canal.ultimoSondeo, Instant.now()).toMillis() / 1000.0)
+                .description("Segundos desde el ultimo sondeo correcto del outbox, cota de una lectura obsoleta")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("empleados.cache.coherencia.huecos", this, canal -> canal.huecosPendientes)
+                .description("Cambios de otros nodos que faltan por debajo del ultimo leido (transacciones abiertas)")
+                .register(registry);
+    }
+}
@@ -0,0 +1,37 @@
+package com.pruebasUnitariasB.ApiRest.cache;
+
+import com.pruebasUnitariasB.ApiRest.cambios.CambiosConfirmados;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+//Mantiene la cache de empleados y el ETag de los listados al dia con los cambios de otros nodos. Solo se
+//activa si se elige un canal (empleados.cache.coherencia.canal=tabla|local); con un solo nodo no hace falta.
+@Component
+@ConditionalOnProperty(name = "empleados.cache.coherencia.canal")
+public class CoherenciaCache implements ReceptorInvalidaciones {
+
+    private final CanalInvalidaciones canal;
+    private final EmpleadoCache empleadoCache;
+    private final VersionColeccion versionColeccion;
+
+    public CoherenciaCache(CanalInvalidaciones canal, EmpleadoCache empleadoCache, VersionColeccion versionColeccion) {
+        this.canal = canal;
+        this.empleadoCache = empleadoCache;
+        this.versionColeccion = versionColeccion;
+        canal.suscribir(this);
+    }
+
+    @EventListener
+    public void alConfirmar(CambiosConfirmados confirmados) {
+        canal.publicar(confirmados.cambios());
+    }
+
+    @Override
+    public void invalidar(Collection<Long> ids) {
+        empleadoCache.invalidarTodos(ids);
+        versionColeccion.incrementar();
+    }
+}
@@ -0,0 +1,108 @@
+package com.pruebasUnitariasB.ApiRest.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.pruebasUnitariasB.ApiRest.dto.EstadisticasCache;
+import com.pruebasUnitariasB.ApiRest.entity.Empleado;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+@Component
+public class EmpleadoCache implements MeterBinder {
+
+    private final Cache<Long, Empleado> cache;
+
+    public EmpleadoCache(@Value("${empleados.cache.tamanio-maximo:10000}") long tamanioMaximo,
+                         @Value("${empleados.cache.ttl:PT5M}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanioMaximo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    //Caffeine ejecuta un solo cargador por id, las demas peticiones concurrentes esperan su resultado.
+    //Se guardan y se devuelven copias para que quien llama pueda modificar el empleado sin tocar la cache.
+    public Optional<Empleado> obtener(Long id, Function<Long, Optional<Empleado>> cargador) {
+        Empleado empleado = cache.get(id, clave -> cargador.apply(clave).map(EmpleadoCache::copiar).orElse(null));
+        return Optional.ofNullable(empleado).map(EmpleadoCache::copiar);
+    }
+
+    //Con una transaccion activa el valor nuevo solo entra en la cache si se confirma; hasta entonces se quita el
+    //anterior. Si dos transacciones confirman en otro orden que el de sus versiones, se queda la version mayor.
+    public void actualizar(Empleado empleado) {
+        if (empleado == null || empleado.getId() == null) {
+            return;
+        }
+        Empleado copia = copiar(empleado);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            guardar(copia);
+            return;
+        }
+        cache.invalidate(copia.getId());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    guardar(copia);
+                } else {
+                    cache.invalidate(copia.getId());
+                }
+            }
+        });
+    }
+
+    public void invalidar(Long id) {
+        invalidarTodos(List.of(id));
+    }
+
+    //Si hay una transaccion activa se vuelve a invalidar despues de terminar, por si otra peticion
+    //recargo el valor anterior antes del commit.
+    public void invalidarTodos(Collection<Long> ids) {
+        List<Long> claves = List.copyOf(ids);
+        cache.invalidateAll(claves);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidateAll(claves);
+                }
+            });
+        }
+    }
+
+    public EstadisticasCache estadisticas() {
+        CacheStats stats = cache.stats();
+        return new EstadisticasCache(stats.hitCount(), stats.missCount(), stats.evictionCount(),
+                cache.estimatedSize(), stats.hitRate());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "empleados");
+    }
+
+    private void guardar(Empleado copia) {
+        cache.asMap().merge(copia.getId(), copia, (actual, nueva) -> esAnterior(actual, nueva) ? nueva : actual);
+    }
+
+    private static boolean esAnterior(Empleado actual, Empleado nueva) {
+        return actual.getVersion() == null || nueva.getVersion() == null || actual.getVersion() <= nueva.getVersion();
+    }
+
+    private static Empleado copiar(Empleado empleado) {
+        return empleado.toBuilder().build();
+    }
+}
@@ -0,0 +1,58 @@
+package com.pruebasUnitariasB.ApiRest.cache;
+
+import com.pruebasUnitariasB.ApiRest.repository.EmpleadoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+//Conjunto en memoria con todos los emails de la tabla empleados. Solo sirve para evitar el SELECT cuando
+//el email seguro que es nuevo; la unicidad real la garantiza el indice unico de la base de datos.
+@Component
+public class IndiceEmails {
+    private static final Logger log = LoggerFactory.getLogger(IndiceEmails.class);
+
+    private final Set<String> emails = ConcurrentHashMap.newKeySet();
+    private volatile boolean cargado;
+
+    @Autowired
+    private EmpleadoRepository empleadoRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void reconstruir() {
+        try (Stream<String> existentes = empleadoRepository.streamEmails()) {
+            cargar(existentes);
+        }
+        log.info("Indice de emails cargado con {} emails", emails.size());
+    }
+
+    //Mientras se carga, esSeguroNuevo devuelve false y las escrituras siguen registrando sus emails,
+    //asi que no se pierde ninguno que se inserte durante la carga.
+    public void cargar(Stream<String> existentes) {
+        existentes.forEach(emails::add);
+        cargado = true;
+    }
+
+    public boolean esSeguroNuevo(String email) {
+        return cargado && email != null && !emails.contains(email);
+    }
+
+    public void registrar(String email) {
+        if (email != null) {
+            emails.add(email);
+        }
+    }
+
+    public void registrarTodos(Collection<String> nuevos) {
+        nuevos.forEach(this::registrar);
+    }
+}
@@ -0,0 +1,8 @@
+package com.pruebasUnitariasB.ApiRest.cache;
+
+import java.util.Collection;
+
+public interface ReceptorInvalidaciones {
+
+    void invalidar(Collection<Long> ids);
+}
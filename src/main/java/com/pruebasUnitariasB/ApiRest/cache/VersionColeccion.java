@@ -0,0 +1,34 @@
+package com.pruebasUnitariasB.ApiRest.cache;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+//Contador de cambios de la tabla de empleados, sirve como ETag de los listados sin tener que consultarlos.
+//Se parte de la hora de arranque para que un reinicio no vuelva a entregar un ETag ya usado.
+@Component
+public class VersionColeccion {
+
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    public long actual() {
+        return version.get();
+    }
+
+    //Con una transaccion activa se incrementa al terminar; si se hiciera antes del commit, una lectura
+    //concurrente podria guardar los datos anteriores con el ETag nuevo.
+    public void incrementar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    version.incrementAndGet();
+                }
+            });
+        } else {
+            version.incrementAndGet();
+        }
+    }
+}
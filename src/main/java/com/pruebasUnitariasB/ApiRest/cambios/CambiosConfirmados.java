@@ -0,0 +1,10 @@
+package com.pruebasUnitariasB.ApiRest.cambios;
+
+import com.pruebasUnitariasB.ApiRest.entity.CambioEmpleado;
+
+import java.util.List;
+
+//Se publica despues del commit de cada transaccion que registro cambios, con los cambios en el orden en que se
+//registraron. Aun no llevan orden: lo asigna la base de datos y hay que leerlo de la tabla
+public record CambiosConfirmados(List<CambioEmpleado> cambios) {
+}
@@ -0,0 +1,132 @@
+package com.pruebasUnitariasB.ApiRest.cambios;
+
+import com.pruebasUnitariasB.ApiRest.dto.EmailEmpleado;
+import com.pruebasUnitariasB.ApiRest.entity.CambioEmpleado;
+import com.pruebasUnitariasB.ApiRest.entity.Empleado;
+import com.pruebasUnitariasB.ApiRest.repository.CambioEmpleadoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+//Registro ordenado de cambios de empleados. Cada cambio se guarda en el outbox (cambios_empleados) dentro de la
+//transaccion del servicio y se lee de la tabla por la columna orden, que asigna la base de datos al insertar y
+//comparten todos los nodos. La secuencia se reserva por rangos en cada nodo y no sirve como cursor: un cambio
+//de otro nodo puede confirmar con una secuencia menor que la ultima leida.
+@Component
+public class RegistroCambios {
+
+    private final CambioEmpleadoRepository cambioEmpleadoRepository;
+    private final ApplicationEventPublisher eventos;
+    private final Duration esperaHuecos;
+
+    public RegistroCambios(CambioEmpleadoRepository cambioEmpleadoRepository, ApplicationEventPublisher eventos,
+                           @Value("${empleados.cambios.espera-huecos:PT30S}") Duration esperaHuecos) {
+        this.cambioEmpleadoRepository = cambioEmpleadoRepository;
+        this.eventos = eventos;
+        this.esperaHuecos = esperaHuecos;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(CambioEmpleado.Tipo tipo, Empleado empleado) {
+        guardar(List.of(CambioEmpleado.de(tipo, empleado)));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarActualizacion(Empleado empleado, String emailAnterior) {
+        guardar(List.of(CambioEmpleado.actualizado(empleado, emailAnterior)));
+    }
+
+    //La actualizacion parcial no lee el empleado: el cambio lleva solo los campos enviados y la version si se conoce
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarParcial(Long id, Empleado cambios, Long version, String emailAnterior) {
+        guardar(List.of(CambioEmpleado.actualizado(cambios.toBuilder()
+                .id(id)
+                .version(version)
+                .build(), emailAnterior)));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarTodos(CambioEmpleado.Tipo tipo, Collection<Empleado> empleados) {
+        if (!empleados.isEmpty()) {
+            guardar(empleados.stream().map(empleado -> CambioEmpleado.de(tipo, empleado)).toList());
+        }
+    }
+
+    //Cambios ya construidos por el servicio, p. ej. las actualizaciones en lote con su email anterior
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarCambios(Collection<CambioEmpleado> cambios) {
+        if (!cambios.isEmpty()) {
+            guardar(List.copyOf(cambios));
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarEliminaciones(Collection<EmailEmpleado> eliminados) {
+        if (!eliminados.isEmpty()) {
+            guardar(eliminados.stream()
+                    .map(eliminado -> CambioEmpleado.eliminado(eliminado.getId(), eliminado.getEmail()))
+                    .toList());
+        }
+    }
+
+    //Cambios confirmados con orden mayor que desde, en orden y sin huecos. Un orden que falta es una transaccion
+    //aun abierta o deshecha: la lectura se detiene ahi, salvo que el cambio siguiente se escribiera hace mas de
+    //espera-huecos, porque una transaccion tan larga ya no puede confirmar (supone relojes sincronizados)
+    public List<CambioEmpleado> leer(long desde, int limite) {
+        List<CambioEmpleado> pagina = cambioEmpleadoRepository.findCambiosDesdeOrden(desde, PageRequest.of(0, limite));
+        Instant limiteHuecos = Instant.now().minus(esperaHuecos);
+        long ultimo = desde;
+        int contiguos = 0;
+        for (CambioEmpleado cambio : pagina) {
+            if (cambio.getOrden() != ultimo + 1 && !cambio.getFecha().isBefore(limiteHuecos)) {
+                break;
+            }
+            ultimo = cambio.getOrden();
+            contiguos++;
+        }
+        return pagina.subList(0, contiguos);
+    }
+
+    public long ultimoOrden() {
+        return cambioEmpleadoRepository.findUltimoOrden();
+    }
+
+    private void guardar(List<CambioEmpleado> cambios) {
+        cambiosDeLaTransaccion().addAll(cambioEmpleadoRepository.saveAll(cambios));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<CambioEmpleado> cambiosDeLaTransaccion() {
+        List<CambioEmpleado> cambios = (List<CambioEmpleado>) TransactionSynchronizationManager.getResource(this);
+        if (cambios == null) {
+            List<CambioEmpleado> nuevos = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, nuevos);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(RegistroCambios.this);
+                    terminar(nuevos, status == STATUS_COMMITTED);
+                }
+            });
+            cambios = nuevos;
+        }
+        return cambios;
+    }
+
+    private void terminar(List<CambioEmpleado> cambios, boolean confirmados) {
+        if (confirmados) {
+            eventos.publishEvent(new CambiosConfirmados(cambios));
+        }
+    }
+}
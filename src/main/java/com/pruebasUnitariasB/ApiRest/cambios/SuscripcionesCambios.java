@@ -0,0 +1,356 @@
+package com.pruebasUnitariasB.ApiRest.cambios;
+
+import com.pruebasUnitariasB.ApiRest.entity.CambioEmpleado;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Consumidores del registro de cambios: conexiones SSE y peticiones long-poll en espera. Un unico hilo lee de la
+//tabla lo nuevo tras cada commit de este nodo o cada sondeo (los de otros nodos) y lo reparte. Cada conexion SSE
+//tiene su propia cola acotada y su propio envio, asi un cliente lento no retrasa a los demas ni a las escrituras:
+//si su cola se llena se cierra la conexion y el cliente vuelve con Last-Event-ID, leyendo lo atrasado de la tabla.
+@Component
+@Profile("!reactive")
+public class SuscripcionesCambios implements MeterBinder, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(SuscripcionesCambios.class);
+
+    private final RegistroCambios registroCambios;
+    private final int suscripcionesMaximas;
+    private final int tamanioLote;
+    private final int capacidadCola;
+    private final Duration timeoutSse;
+
+    private final Set<Suscripcion> suscripciones = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean programado = new AtomicBoolean();
+    private final AtomicLong desbordadas = new AtomicLong();
+    private final ExecutorService despachador = Executors.newSingleThreadExecutor(hilos("cambios-empleados"));
+    //Un envio bloqueado ocupa un hilo, como mucho uno por suscripcion abierta (suscripciones-maximas)
+    private final ExecutorService envios = Executors.newCachedThreadPool(hilos("cambios-empleados-envio"));
+    //Ultimo orden repartido; solo lo toca el hilo despachador
+    private long cabeza = -1;
+
+    public SuscripcionesCambios(RegistroCambios registroCambios,
+                                @Value("${empleados.cambios.suscripciones-maximas:1000}") int suscripcionesMaximas,
+                                @Value("${empleados.cambios.tamanio-lote:500}") int tamanioLote,
+                                @Value("${empleados.cambios.sse.capacidad-cola:1000}") int capacidadCola,
+                                @Value("${empleados.cambios.sse.timeout:PT30M}") Duration timeoutSse) {
+        this.registroCambios = registroCambios;
+        this.suscripcionesMaximas = suscripcionesMaximas;
+        this.tamanioLote = tamanioLote;
+        this.capacidadCola = capacidadCola;
+        this.timeoutSse = timeoutSse;
+    }
+
+    private static ThreadFactory hilos(String nombre) {
+        return tarea -> {
+            Thread hilo = new Thread(tarea, nombre);
+            hilo.setDaemon(true);
+            return hilo;
+        };
+    }
+
+    //Vacio si ya hay demasiadas suscripciones abiertas
+    public Optional<SseEmitter> abrir(long desde) {
+        return abrir(new SseEmitter(timeoutSse.toMillis()), desde);
+    }
+
+    Optional<SseEmitter> abrir(SseEmitter emitter, long desde) {
+        if (suscripciones.size() >= suscripcionesMaximas) {
+            return Optional.empty();
+        }
+        SuscripcionSse suscripcion = new SuscripcionSse(emitter, desde);
+        agregar(suscripcion);
+        suscripcion.programarEnvio();
+        return Optional.of(emitter);
+    }
+
+    //Responde en cuanto haya cambios posteriores a desde o, si no llegan, con una lista vacia al acabar la espera
+    public Optional<DeferredResult<List<CambioEmpleado>>> esperar(long desde, int limite, Duration espera) {
+        List<CambioEmpleado> cambios = registroCambios.leer(desde, limite);
+        DeferredResult<List<CambioEmpleado>> resultado = new DeferredResult<>(espera.toMillis(), List.of());
+        if (!cambios.isEmpty() || espera.isZero()) {
+            resultado.setResult(cambios);
+            return Optional.of(resultado);
+        }
+        if (suscripciones.size() >= suscripcionesMaximas) {
+            return Optional.empty();
+        }
+        agregar(new Espera(resultado, desde, limite));
+        return Optional.of(resultado);
+    }
+
+    @EventListener
+    public void alConfirmar(CambiosConfirmados cambios) {
+        programar();
+    }
+
+    //Los cambios de otros nodos no generan evento aqui: se buscan en la tabla cada intervalo de sondeo
+    @Scheduled(fixedDelayString = "${empleados.cambios.sondeo:PT1S}")
+    public void sondear() {
+        programar();
+    }
+
+    public int abiertas() {
+        return suscripciones.size();
+    }
+
+    //Se da de alta antes de programar el envio, para no perder cambios confirmados entre medias
+    private void agregar(Suscripcion suscripcion) {
+        suscripciones.add(suscripcion);
+        suscripcion.alTerminar(() -> suscripciones.remove(suscripcion));
+        programar();
+    }
+
+    private void programar() {
+        if (programado.compareAndSet(false, true)) {
+            despachador.execute(() -> {
+                programado.set(false);
+                despachar();
+            });
+        }
+    }
+
+    //Lee cada pagina nueva una sola vez para todas las suscripciones. Si falla, el siguiente aviso sigue desde cabeza
+    private void despachar() {
+        try {
+            //Lo anterior al arranque lo lee cada suscripcion de la tabla
+            if (cabeza < 0) {
+                cabeza = registroCambios.ultimoOrden();
+            }
+            List<CambioEmpleado> nuevos;
+            do {
+                long anterior = cabeza;
+                nuevos = registroCambios.leer(anterior, tamanioLote);
+                if (!nuevos.isEmpty()) {
+                    cabeza = nuevos.get(nuevos.size() - 1).getOrden();
+                }
+                repartir(anterior, nuevos);
+            } while (nuevos.size() == tamanioLote);
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron leer los cambios para las suscripciones", e);
+        }
+    }
+
+    private void repartir(long anterior, List<CambioEmpleado> nuevos) {
+        for (Suscripcion suscripcion : suscripciones) {
+            try {
+                if (!suscripcion.entregar(anterior, nuevos)) {
+                    desbordadas.incrementAndGet();
+                    suscripciones.remove(suscripcion);
+                }
+            } catch (RuntimeException e) {
+                log.debug("Se cierra una suscripcion de cambios", e);
+                suscripciones.remove(suscripcion);
+                suscripcion.cerrar(e);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        despachador.shutdownNow();
+        suscripciones.forEach(suscripcion -> suscripcion.cerrar(null));
+        suscripciones.clear();
+        envios.shutdownNow();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("empleados.cambios.suscripciones", this, SuscripcionesCambios::abiertas)
+                .description("Conexiones SSE y long-poll esperando cambios")
+                .register(registry);
+        FunctionCounter.builder("empleados.cambios.desbordadas", desbordadas, AtomicLong::get)
+                .description("Conexiones SSE cerradas por llenar su cola de cambios pendientes")
+                .register(registry);
+    }
+
+    private interface Suscripcion {
+        //nuevos son los cambios posteriores a anterior, vacio si no hay. Devuelve false si la suscripcion se desborda
+        boolean entregar(long anterior, List<CambioEmpleado> nuevos);
+
+        void alTerminar(Runnable accion);
+
+        void cerrar(Exception causa);
+    }
+
+    //previo es el orden que el despachador repartio justo antes que el cambio: entre los dos solo hay huecos
+    //ya descartados, asi que el cambio puede enviarse si la conexion ya envio previo
+    private record Pendiente(long previo, CambioEmpleado cambio) {
+    }
+
+    private final class SuscripcionSse implements Suscripcion {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Pendiente> cola = new ArrayBlockingQueue<>(capacidadCola);
+        //Avisos sin atender; el que lo pasa de 0 a 1 lanza el envio, asi nunca hay dos a la vez
+        private final AtomicInteger avisos = new AtomicInteger();
+        private volatile long ultima;
+        private volatile long repartido = -1;
+        private volatile boolean desbordada;
+        private boolean iniciada;
+
+        SuscripcionSse(SseEmitter emitter, long desde) {
+            this.emitter = emitter;
+            this.ultima = desde;
+        }
+
+        @Override
+        public boolean entregar(long anterior, List<CambioEmpleado> nuevos) {
+            long previo = anterior;
+            for (CambioEmpleado cambio : nuevos) {
+                if (!cola.offer(new Pendiente(previo, cambio))) {
+                    desbordada = true;
+                    cola.clear();
+                    programarEnvio();
+                    return false;
+                }
+                previo = cambio.getOrden();
+            }
+            repartido = previo;
+            if (!nuevos.isEmpty() || ultima < anterior) {
+                programarEnvio();
+            }
+            return true;
+        }
+
+        void programarEnvio() {
+            if (avisos.getAndIncrement() == 0) {
+                envios.execute(this::atenderAvisos);
+            }
+        }
+
+        private void atenderAvisos() {
+            int atendidos;
+            do {
+                atendidos = avisos.get();
+                try {
+                    enviarPendientes();
+                } catch (IOException | RuntimeException e) {
+                    log.debug("Se cierra una suscripcion de cambios", e);
+                    suscripciones.remove(this);
+                    cerrar(e);
+                    return;
+                }
+            } while (avisos.addAndGet(-atendidos) != 0);
+        }
+
+        //Envia la cola mientras siga a continuacion de lo ya enviado. Si no, la conexion va atrasada (recien
+        //abierta, o el despachador paso un hueco que ella aun no) y lee de la tabla, como mucho una vez por aviso
+        private void enviarPendientes() throws IOException {
+            boolean leida = false;
+            while (!desbordada) {
+                Pendiente pendiente = cola.peek();
+                if (pendiente != null && pendiente.cambio().getOrden() <= ultima) {
+                    cola.poll();
+                } else if (pendiente != null && pendiente.previo() <= ultima) {
+                    enviar(pendiente.cambio());
+                    cola.poll();
+                } else if (!leida && (pendiente != null || ultima < repartido || !iniciada)) {
+                    ponerAlDia();
+                    leida = true;
+                    iniciada = true;
+                } else {
+                    break;
+                }
+            }
+            if (desbordada) {
+                emitter.complete();
+            }
+        }
+
+        private void ponerAlDia() throws IOException {
+            List<CambioEmpleado> cambios;
+            do {
+                cambios = registroCambios.leer(ultima, tamanioLote);
+                for (CambioEmpleado cambio : cambios) {
+                    enviar(cambio);
+                }
+            } while (cambios.size() == tamanioLote && !desbordada);
+        }
+
+        private void enviar(CambioEmpleado cambio) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(cambio.getOrden()))
+                    .name(cambio.getTipo().name())
+                    .data(cambio, MediaType.APPLICATION_JSON));
+            ultima = cambio.getOrden();
+        }
+
+        @Override
+        public void alTerminar(Runnable accion) {
+            emitter.onCompletion(accion);
+            emitter.onTimeout(accion);
+            emitter.onError(error -> accion.run());
+        }
+
+        @Override
+        public void cerrar(Exception causa) {
+            if (causa == null) {
+                emitter.complete();
+            } else {
+                emitter.completeWithError(causa);
+            }
+        }
+    }
+
+    private final class Espera implements Suscripcion {
+        private final DeferredResult<List<CambioEmpleado>> resultado;
+        private final long desde;
+        private final int limite;
+
+        Espera(DeferredResult<List<CambioEmpleado>> resultado, long desde, int limite) {
+            this.resultado = resultado;
+            this.desde = desde;
+            this.limite = limite;
+        }
+
+        //Si desde ya estaba repartido basta con la pagina nueva; si no, lo que le falta esta en la tabla
+        @Override
+        public boolean entregar(long anterior, List<CambioEmpleado> nuevos) {
+            List<CambioEmpleado> cambios = desde >= anterior
+                    ? nuevos.stream().filter(cambio -> cambio.getOrden() > desde).limit(limite).toList()
+                    : registroCambios.leer(desde, limite);
+            if (!cambios.isEmpty()) {
+                suscripciones.remove(this);
+                resultado.setResult(cambios);
+            }
+            return true;
+        }
+
+        @Override
+        public void alTerminar(Runnable accion) {
+            resultado.onCompletion(accion);
+        }
+
+        @Override
+        public void cerrar(Exception causa) {
+            resultado.setResult(List.of());
+        }
+    }
+}
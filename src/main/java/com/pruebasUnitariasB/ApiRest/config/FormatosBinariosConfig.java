@@ -0,0 +1,26 @@
+package com.pruebasUnitariasB.ApiRest.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+//Ademas de JSON la API responde en CBOR (Accept: application/cbor) o Smile (Accept: application/x-jackson-smile).
+//Los conversores se crean con el builder de Spring Boot para que usen la misma configuracion que el de JSON,
+//y como el, escriben directamente en la respuesta sin pasar por un byte[] intermedio.
+@Configuration
+public class FormatosBinariosConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter conversorCbor(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter conversorSmile(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,38 @@
+package com.pruebasUnitariasB.ApiRest.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//Atiende cada peticion de Tomcat (y por tanto las llamadas al repositorio que hace) en un hilo virtual.
+//Se activa con el perfil "virtual" y necesita Java 21; el proyecto sigue compilando con Java 17.
+@Configuration
+@ConditionalOnProperty(name = "empleados.hilos-virtuales.enabled", havingValue = "true")
+public class HilosVirtualesConfig {
+    private static final Logger log = LoggerFactory.getLogger(HilosVirtualesConfig.class);
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> ejecutorHilosVirtuales() {
+        ExecutorService ejecutor = crearEjecutorHilosVirtuales();
+        log.info("Tomcat atendera las peticiones con hilos virtuales");
+        return protocolHandler -> protocolHandler.setExecutor(ejecutor);
+    }
+
+    public static ExecutorService crearEjecutorHilosVirtuales() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Los hilos virtuales necesitan Java 21 o superior, version actual: "
+                    + Runtime.version(), e);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("No se pudo crear el ejecutor de hilos virtuales", e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.pruebasUnitariasB.ApiRest.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+//Activa las tareas @Scheduled de toda la aplicacion (purga de eliminados, reconciliacion de estadisticas,
+//sondeo de invalidaciones). Tambien hace que Spring Boot cree el TaskScheduler que usa EnrutamientoLecturas;
+//su pool se configura con spring.task.scheduling.*
+@Configuration
+@EnableScheduling
+public class ProgramacionConfig {
+}
@@ -0,0 +1,40 @@
+package com.pruebasUnitariasB.ApiRest.config;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.Disposable;
+
+//La ConnectionFactory no se publica como bean: si existiera, Spring Boot dejaria de configurar el
+//DataSource JDBC y JPA, que siguen creando el esquema y atendiendo el resto de componentes.
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig implements DisposableBean {
+
+    private ConnectionFactory connectionFactory;
+
+    @Bean
+    public DatabaseClient databaseClient(@Value("${empleados.r2dbc.url}") String url,
+                                         @Value("${spring.datasource.username}") String usuario,
+                                         @Value("${spring.datasource.password}") String password) {
+        ConnectionFactoryOptions opciones = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, usuario)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        connectionFactory = ConnectionFactories.get(opciones);
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    @Override
+    public void destroy() {
+        if (connectionFactory instanceof Disposable disposable) {
+            disposable.dispose();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.pruebasUnitariasB.ApiRest.controller;
+
+import com.pruebasUnitariasB.ApiRest.cambios.SuscripcionesCambios;
+import com.pruebasUnitariasB.ApiRest.entity.CambioEmpleado;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+
+//Feed de cambios para sincronizar de forma incremental: cada cambio lleva su orden y el consumidor
+//pide los posteriores al ultimo que proceso, por SSE o con long-poll
+@RestController
+@RequestMapping("api/empleados/cambios")
+@Profile("!reactive")
+public class CambioEmpleadoController {
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    @Autowired
+    private SuscripcionesCambios suscripcionesCambios;
+
+    @Value("${empleados.cambios.espera-maxima:PT30S}")
+    private Duration esperaMaxima;
+
+    @Value("${empleados.paginacion.limite-maximo:500}")
+    private int limiteMaximo;
+
+    //Al reconectar el navegador envia Last-Event-ID con el orden del ultimo evento recibido
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter suscribirCambios(@RequestParam(value = "desde", required = false) Long desde,
+                                       @RequestHeader(value = LAST_EVENT_ID, required = false) Long ultimoEvento){
+        long inicio = desde != null ? desde : ultimoEvento != null ? ultimoEvento : 0L;
+        return suscripcionesCambios.abrir(inicio).orElseThrow(this::saturado);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<List<CambioEmpleado>> leerCambios(@RequestParam(value = "desde", defaultValue = "0") long desde,
+                                                            @RequestParam(value = "limite", required = false) Integer limite,
+                                                            @RequestParam(value = "espera", defaultValue = "PT0S") Duration espera){
+        int tamanio = limite == null ? limiteMaximo : Math.max(1, Math.min(limite, limiteMaximo));
+        Duration esperaAcotada = espera.isNegative() ? Duration.ZERO
+                : espera.compareTo(esperaMaxima) > 0 ? esperaMaxima : espera;
+        return suscripcionesCambios.esperar(desde, tamanio, esperaAcotada).orElseThrow(this::saturado);
+    }
+
+    private ResponseStatusException saturado() {
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Demasiadas suscripciones de cambios abiertas");
+    }
+}
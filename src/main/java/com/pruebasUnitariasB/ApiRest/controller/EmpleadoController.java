@@ -1,53 +1,389 @@
 package com.pruebasUnitariasB.ApiRest.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pruebasUnitariasB.ApiRest.dto.CampoBusqueda;
+import com.pruebasUnitariasB.ApiRest.dto.CampoEmpleado;
+import com.pruebasUnitariasB.ApiRest.dto.EmpleadoResumen;
+import com.pruebasUnitariasB.ApiRest.dto.EstadisticasCache;
+import com.pruebasUnitariasB.ApiRest.dto.EstadisticasEmpleados;
+import com.pruebasUnitariasB.ApiRest.dto.EstadoIngesta;
+import com.pruebasUnitariasB.ApiRest.dto.Pagina;
+import com.pruebasUnitariasB.ApiRest.dto.ReporteImportacion;
+import com.pruebasUnitariasB.ApiRest.dto.ResultadoActualizacion;
+import com.pruebasUnitariasB.ApiRest.dto.ResultadoLote;
 import com.pruebasUnitariasB.ApiRest.entity.Empleado;
+import com.pruebasUnitariasB.ApiRest.importacion.FormatoImportacion;
+import com.pruebasUnitariasB.ApiRest.importacion.ImportadorEmpleados;
+import com.pruebasUnitariasB.ApiRest.ingesta.ColaIngesta;
 import com.pruebasUnitariasB.ApiRest.service.EmpleadoService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("api/empleados")
+@Profile("!reactive")
 public class EmpleadoController {
+    public static final String MEDIA_TYPE_NDJSON = "application/x-ndjson";
+    public static final String MEDIA_TYPE_CSV = "text/csv";
+    private static final int TAMANIO_BUFFER = 8192;
+
     @Autowired
     private EmpleadoService empleadoService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ImportadorEmpleados importadorEmpleados;
+
+    //Solo existe con empleados.ingesta.asincrona.enabled=true
+    @Autowired(required = false)
+    private ColaIngesta colaIngesta;
+
+    @Value("${empleados.paginacion.limite-defecto:50}")
+    private int limiteDefecto;
+
+    @Value("${empleados.paginacion.limite-maximo:500}")
+    private int limiteMaximo;
+
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public Empleado guardarEmpleado(@RequestBody Empleado empleado){
-        return empleadoService.guardarEmpleado(empleado);
+    public ResponseEntity<?> guardarEmpleado(@RequestBody Empleado empleado){
+        if (colaIngesta == null) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(empleadoService.guardarEmpleado(empleado));
+        }
+        return colaIngesta.encolar(empleado)
+                .<ResponseEntity<?>>map(estado -> ResponseEntity.accepted()
+                        .location(URI.create("/api/empleados/ingesta/" + estado.getSeguimiento()))
+                        .body(estado))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .build());
+    }
+
+    @PostMapping(value = "/importar", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MEDIA_TYPE_NDJSON)
+    public void importarEmpleados(@RequestPart("archivo") MultipartFile archivo, HttpServletResponse response)
+            throws IOException {
+        FormatoImportacion formato;
+        try {
+            formato = FormatoImportacion.detectar(archivo.getContentType(), archivo.getOriginalFilename());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        response.setContentType(MEDIA_TYPE_NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        try (InputStream entrada = archivo.getInputStream();
+             JsonGenerator generador = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generador.setRootValueSeparator(null);
+            importadorEmpleados.importar(entrada, formato, reporte -> {
+                try {
+                    objectMapper.writeValue(generador, reporte);
+                    generador.writeRaw('\n');
+                    if (reporte.getTipo() != ReporteImportacion.Tipo.ERROR) {
+                        generador.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    @GetMapping("/ingesta/{seguimiento}")
+    public ResponseEntity<EstadoIngesta> estadoIngesta(@PathVariable("seguimiento") String seguimiento){
+        return Optional.ofNullable(colaIngesta)
+                .flatMap(cola -> cola.estado(seguimiento))
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/batch")
+    public List<ResultadoLote> guardarEmpleados(@RequestBody List<Empleado> empleados){
+        return empleadoService.guardarEmpleados(empleados);
+    }
+
+    @PutMapping("/batch")
+    public List<ResultadoLote> actualizarEmpleados(@RequestBody List<Empleado> empleados){
+        return empleadoService.actualizarEmpleados(empleados);
     }
 
+    @DeleteMapping("/batch")
+    public List<ResultadoLote> eliminarEmpleados(@RequestBody List<Long> ids){
+        return empleadoService.eliminarEmpleados(ids);
+    }
+
+    //Si el ETag del listado coincide se responde 304 sin consultar ni serializar los empleados
     @GetMapping
-    public List<Empleado> listEmpleados(){
-        return empleadoService.getAllEmpleados();
+    public List<?> listEmpleados(@RequestParam(value = "fields", required = false) String fields, WebRequest peticion){
+        List<CampoEmpleado> campos = campos(fields);
+        if (peticion.checkNotModified(etagColeccion())) {
+            return null;
+        }
+        return proyectar(empleadoService.getResumenEmpleados(), campos);
+    }
+
+    @GetMapping("/pagina")
+    public Pagina<?> listEmpleadosPaginados(@RequestParam(value = "cursor", required = false) String cursor,
+                                            @RequestParam(value = "limite", required = false) Integer limite,
+                                            @RequestParam(value = "fields", required = false) String fields,
+                                            WebRequest peticion){
+        List<CampoEmpleado> campos = campos(fields);
+        if (peticion.checkNotModified(etagColeccion())) {
+            return null;
+        }
+        try {
+            return proyectar(empleadoService.getEmpleadosPaginados(cursor, tamanioPagina(limite)), campos);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping("/buscar")
+    public Pagina<?> buscarEmpleados(@RequestParam(value = "campo", defaultValue = "nombre") String campo,
+                                     @RequestParam("prefijo") String prefijo,
+                                     @RequestParam(value = "cursor", required = false) String cursor,
+                                     @RequestParam(value = "limite", required = false) Integer limite,
+                                     @RequestParam(value = "fields", required = false) String fields,
+                                     WebRequest peticion){
+        List<CampoEmpleado> campos = campos(fields);
+        if (peticion.checkNotModified(etagColeccion())) {
+            return null;
+        }
+        try {
+            return proyectar(empleadoService.buscarEmpleados(CampoBusqueda.desde(campo), prefijo, cursor,
+                    tamanioPagina(limite)), campos);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping(value = "/stream", produces = MEDIA_TYPE_NDJSON)
+    public void streamEmpleados(HttpServletResponse response) throws IOException {
+        response.setContentType(MEDIA_TYPE_NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        escribirNdjson(response.getOutputStream());
+    }
+
+    //Exportacion completa desde el cursor de streamAll; con Accept-Encoding: gzip se comprime al vuelo
+    @GetMapping("/exportar")
+    public void exportarEmpleados(@RequestParam(value = "formato", defaultValue = "ndjson") String formato,
+                                  @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                  HttpServletResponse response) throws IOException {
+        boolean csv = "csv".equalsIgnoreCase(formato);
+        if (!csv && !"ndjson".equalsIgnoreCase(formato)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Formato de exportacion no soportado: " + formato);
+        }
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        response.setContentType(csv ? MEDIA_TYPE_CSV : MEDIA_TYPE_NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(csv ? "empleados.csv" : "empleados.ndjson")
+                .build()
+                .toString());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        try (OutputStream salida = gzip
+                ? new GZIPOutputStream(response.getOutputStream(), TAMANIO_BUFFER)
+                : response.getOutputStream()) {
+            if (csv) {
+                escribirCsv(salida);
+            } else {
+                escribirNdjson(salida);
+            }
+        }
+    }
+
+    @GetMapping("/cache/estadisticas")
+    public EstadisticasCache estadisticasCache(){
+        return empleadoService.getEstadisticasCache();
+    }
+
+    @GetMapping("/estadisticas")
+    public EstadisticasEmpleados estadisticas(){
+        return empleadoService.getEstadisticas();
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Empleado> obtenerEmpleadoPorId(@PathVariable ("id") Long id){
         return empleadoService.getEmpleadoById(id)
-                .map(ResponseEntity::ok)
+                .map(empleado -> conEtag(ResponseEntity.ok(), empleado.getVersion()).body(empleado))
                 .orElseGet(()->ResponseEntity.notFound().build());
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Empleado> actualizarEmpleado(@PathVariable("id") Long id, @RequestBody Empleado updateEmpleado){
+    public ResponseEntity<Empleado> actualizarEmpleado(@PathVariable("id") Long id, @RequestBody Empleado updateEmpleado,
+                                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        Long versionEsperada = null;
+        if (ifMatch != null && !esComodin(ifMatch)) {
+            versionEsperada = versionDeEtag(ifMatch);
+            if (versionEsperada == null) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+        }
+        Long versionIfMatch = versionEsperada;
         return empleadoService.getEmpleadoById(id)
                 .map(setEmpleado ->{
+                    //La version de If-Match no se compara con la de la cache, que puede ir atrasada: se guarda con ella
+                    //y el merge y el UPDATE ... where version = ? la comprueban contra la fila
+                    if (versionIfMatch != null) {
+                        setEmpleado.setVersion(versionIfMatch);
+                    }
                     setEmpleado.setNombre(updateEmpleado.getNombre());
                     setEmpleado.setApellido(updateEmpleado.getApellido());
                     setEmpleado.setEmail(updateEmpleado.getEmail());
 
-                    Empleado empleadoActualizado = empleadoService.updateEmpleado(setEmpleado);
-                    return new ResponseEntity<Empleado>(empleadoActualizado, HttpStatus.OK);
+                    Empleado empleadoActualizado;
+                    try {
+                        empleadoActualizado = empleadoService.updateEmpleado(setEmpleado);
+                    } catch (OptimisticLockingFailureException e) {
+                        return ResponseEntity.status(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT)
+                                .<Empleado>build();
+                    }
+                    return conEtag(ResponseEntity.status(HttpStatus.OK), empleadoActualizado.getVersion()).body(empleadoActualizado);
                 }).orElseGet(()->ResponseEntity.notFound().build());
     }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> actualizarParcial(@PathVariable("id") Long id, @RequestBody Empleado cambios,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        Long versionEsperada = null;
+        if (ifMatch != null && !esComodin(ifMatch)) {
+            versionEsperada = versionDeEtag(ifMatch);
+            if (versionEsperada == null) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+        }
+        ResultadoActualizacion resultado = empleadoService.actualizarParcial(id, cambios, versionEsperada);
+        return switch (resultado.getEstado()) {
+            case ACTUALIZADO -> conEtag(ResponseEntity.status(HttpStatus.NO_CONTENT), resultado.getVersion()).build();
+            case NO_ENCONTRADO -> ResponseEntity.notFound().build();
+            case CONFLICTO_VERSION -> ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        };
+    }
     @DeleteMapping("/{id}")
     public ResponseEntity<String> eliminarEmpleado(@PathVariable("id") Long id){
-        empleadoService.deleteEmpleado(id);
+        if (!empleadoService.deleteEmpleado(id)) {
+            return ResponseEntity.notFound().build();
+        }
         return new ResponseEntity<String>("Empleado eliminado correctamente: ", HttpStatus.OK);
     }
+
+    private void escribirNdjson(OutputStream salida) throws IOException {
+        try (JsonGenerator generador = objectMapper.getFactory().createGenerator(salida)) {
+            generador.setRootValueSeparator(null);
+            empleadoService.streamEmpleados(empleado -> {
+                try {
+                    objectMapper.writeValue(generador, empleado);
+                    generador.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private void escribirCsv(OutputStream salida) throws IOException {
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), TAMANIO_BUFFER);
+        escritor.write("id,nombre,apellido,email,version\n");
+        empleadoService.streamEmpleados(empleado -> {
+            try {
+                escritor.write(empleado.getId() + "," + campoCsv(empleado.getNombre()) + "," + campoCsv(empleado.getApellido())
+                        + "," + campoCsv(empleado.getEmail()) + "," + empleado.getVersion() + "\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        escritor.flush();
+    }
+
+    private static String campoCsv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return "\"" + valor.replace("\"", "\"\"") + "\"";
+    }
+
+    private static List<CampoEmpleado> campos(String fields) {
+        if (fields == null) {
+            return null;
+        }
+        try {
+            return CampoEmpleado.desde(fields);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    //Sin fields= se serializa el resumen completo tal cual
+    private static List<?> proyectar(List<EmpleadoResumen> empleados, List<CampoEmpleado> campos) {
+        if (campos == null) {
+            return empleados;
+        }
+        return empleados.stream().map(empleado -> CampoEmpleado.proyectar(empleado, campos)).toList();
+    }
+
+    private static Pagina<?> proyectar(Pagina<EmpleadoResumen> pagina, List<CampoEmpleado> campos) {
+        return campos == null ? pagina : new Pagina<>(proyectar(pagina.getContenido(), campos), pagina.getSiguienteCursor());
+    }
+
+    private int tamanioPagina(Integer limite) {
+        return limite == null ? limiteDefecto : Math.min(Math.max(limite, 1), limiteMaximo);
+    }
+
+    //Debil: el mismo listado se sirve en JSON, CBOR o Smile y comprimido o no. Ademas Tomcat no comprime
+    //respuestas con un ETag fuerte
+    private String etagColeccion() {
+        return "W/\"c" + empleadoService.getVersionColeccion() + "\"";
+    }
+
+    private static <B extends ResponseEntity.HeadersBuilder<B>> B conEtag(B respuesta, Long version) {
+        return version == null ? respuesta : respuesta.eTag("\"" + version + "\"");
+    }
+
+    private static boolean esComodin(String ifMatch) {
+        return "*".equals(ifMatch.trim());
+    }
+
+    //Solo se aceptan ETags fuertes con la forma "<version>"; cualquier otro valor no puede coincidir
+    private static Long versionDeEtag(String etag) {
+        String valor = etag.trim();
+        if (valor.length() < 3 || valor.charAt(0) != '"' || valor.charAt(valor.length() - 1) != '"') {
+            return null;
+        }
+        try {
+            return Long.parseLong(valor.substring(1, valor.length() - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 }
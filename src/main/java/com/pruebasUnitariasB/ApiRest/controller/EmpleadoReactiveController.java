@@ -0,0 +1,62 @@
+package com.pruebasUnitariasB.ApiRest.controller;
+
+import com.pruebasUnitariasB.ApiRest.entity.Empleado;
+import com.pruebasUnitariasB.ApiRest.service.EmpleadoReactiveService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+//Mismo contrato que EmpleadoController pero sin bloquear hilos; se activa con el perfil "reactive"
+@RestController
+@RequestMapping("api/empleados")
+@Profile("reactive")
+public class EmpleadoReactiveController {
+    @Autowired
+    private EmpleadoReactiveService empleadoReactiveService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Empleado> guardarEmpleado(@RequestBody Empleado empleado){
+        return empleadoReactiveService.guardarEmpleado(empleado);
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Empleado> listEmpleados(){
+        return empleadoReactiveService.getAllEmpleados();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Empleado>> obtenerEmpleadoPorId(@PathVariable("id") Long id){
+        return empleadoReactiveService.getEmpleadoById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Empleado>> actualizarEmpleado(@PathVariable("id") Long id, @RequestBody Empleado updateEmpleado){
+        return empleadoReactiveService.getEmpleadoById(id)
+                .flatMap(setEmpleado -> {
+                    setEmpleado.setNombre(updateEmpleado.getNombre());
+                    setEmpleado.setApellido(updateEmpleado.getApellido());
+                    setEmpleado.setEmail(updateEmpleado.getEmail());
+                    //Vacio si otra peticion lo cambio o elimino despues de leerlo
+                    return empleadoReactiveService.updateEmpleado(setEmpleado)
+                            .map(empleadoActualizado -> new ResponseEntity<>(empleadoActualizado, HttpStatus.OK))
+                            .defaultIfEmpty(ResponseEntity.status(HttpStatus.CONFLICT).build());
+                })
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<String>> eliminarEmpleado(@PathVariable("id") Long id){
+        return empleadoReactiveService.deleteEmpleado(id)
+                .map(eliminado -> eliminado
+                        ? new ResponseEntity<>("Empleado eliminado correctamente: ", HttpStatus.OK)
+                        : ResponseEntity.notFound().<String>build());
+    }
+}
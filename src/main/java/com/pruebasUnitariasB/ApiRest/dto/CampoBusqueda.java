@@ -0,0 +1,29 @@
+package com.pruebasUnitariasB.ApiRest.dto;
+
+import java.util.Locale;
+import java.util.function.Function;
+
+public enum CampoBusqueda {
+    NOMBRE(EmpleadoResumen::getNombre),
+    APELLIDO(EmpleadoResumen::getApellido),
+    EMAIL(EmpleadoResumen::getEmail);
+
+    private final Function<EmpleadoResumen, String> valor;
+
+    CampoBusqueda(Function<EmpleadoResumen, String> valor) {
+        this.valor = valor;
+    }
+
+    //Mismo valor normalizado (lower) que guarda la columna calculada, es el que se usa en el cursor
+    public String valorBusqueda(EmpleadoResumen empleado) {
+        return valor.apply(empleado).toLowerCase(Locale.ROOT);
+    }
+
+    public static CampoBusqueda desde(String campo) {
+        try {
+            return valueOf(campo.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Campo de busqueda invalido: " + campo, e);
+        }
+    }
+}
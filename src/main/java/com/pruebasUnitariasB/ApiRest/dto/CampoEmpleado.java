@@ -0,0 +1,53 @@
+package com.pruebasUnitariasB.ApiRest.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+//Campos que se pueden pedir con el parametro fields= de los listados
+public enum CampoEmpleado {
+    ID("id", EmpleadoResumen::getId),
+    NOMBRE("nombre", EmpleadoResumen::getNombre),
+    APELLIDO("apellido", EmpleadoResumen::getApellido),
+    EMAIL("email", EmpleadoResumen::getEmail),
+    VERSION("version", EmpleadoResumen::getVersion);
+
+    private final String nombre;
+    private final Function<EmpleadoResumen, Object> valor;
+
+    CampoEmpleado(String nombre, Function<EmpleadoResumen, Object> valor) {
+        this.nombre = nombre;
+        this.valor = valor;
+    }
+
+    public static List<CampoEmpleado> desde(String campos) {
+        Set<CampoEmpleado> resultado = new LinkedHashSet<>();
+        for (String campo : campos.split(",")) {
+            if (campo.isBlank()) {
+                continue;
+            }
+            try {
+                resultado.add(valueOf(campo.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Campo invalido: " + campo.trim(), e);
+            }
+        }
+        if (resultado.isEmpty()) {
+            throw new IllegalArgumentException("Hay que indicar al menos un campo");
+        }
+        return new ArrayList<>(resultado);
+    }
+
+    public static Map<String, Object> proyectar(EmpleadoResumen empleado, List<CampoEmpleado> campos) {
+        Map<String, Object> fila = new LinkedHashMap<>(campos.size() * 2);
+        for (CampoEmpleado campo : campos) {
+            fila.put(campo.nombre, campo.valor.apply(empleado));
+        }
+        return fila;
+    }
+}
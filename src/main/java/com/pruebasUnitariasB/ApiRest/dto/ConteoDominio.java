@@ -0,0 +1,11 @@
+package com.pruebasUnitariasB.ApiRest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ConteoDominio {
+    private String dominio;
+    private Long cuenta;
+}
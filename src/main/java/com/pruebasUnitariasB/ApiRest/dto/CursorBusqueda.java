@@ -0,0 +1,36 @@
+package com.pruebasUnitariasB.ApiRest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+//Posicion de una busqueda ordenada por (valor, id): el ultimo valor devuelto y su id para desempatar
+@Getter
+@AllArgsConstructor
+public class CursorBusqueda {
+    private static final String PREFIJO_CURSOR = "b:";
+
+    private String valor;
+    private Long id;
+
+    public String codificar() {
+        String texto = PREFIJO_CURSOR + id + ":" + valor;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CursorBusqueda decodificar(String cursor) {
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = texto.indexOf(':', PREFIJO_CURSOR.length());
+            if (!texto.startsWith(PREFIJO_CURSOR) || separador < 0) {
+                throw new IllegalArgumentException("Cursor invalido: " + cursor);
+            }
+            Long id = Long.parseLong(texto.substring(PREFIJO_CURSOR.length(), separador));
+            return new CursorBusqueda(texto.substring(separador + 1), id);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor invalido: " + cursor, e);
+        }
+    }
+}
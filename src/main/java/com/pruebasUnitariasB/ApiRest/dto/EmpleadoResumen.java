@@ -0,0 +1,16 @@
+package com.pruebasUnitariasB.ApiRest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//Proyeccion de solo lectura para los listados: se construye en la consulta (select new ...), por lo que
+//Hibernate no la registra en el contexto de persistencia ni guarda copias para el dirty checking
+@Getter
+@AllArgsConstructor
+public class EmpleadoResumen {
+    private Long id;
+    private String nombre;
+    private String apellido;
+    private String email;
+    private Long version;
+}
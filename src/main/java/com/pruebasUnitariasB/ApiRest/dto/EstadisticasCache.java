@@ -0,0 +1,14 @@
+package com.pruebasUnitariasB.ApiRest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class EstadisticasCache {
+    private long aciertos;
+    private long fallos;
+    private long expulsiones;
+    private long tamanio;
+    private double tasaAciertos;
+}
@@ -0,0 +1,19 @@
+package com.pruebasUnitariasB.ApiRest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+@Getter
+@AllArgsConstructor
+public class EstadisticasEmpleados {
+    private long total;
+    private Map<String, Long> porDominio;
+    private long creadosRecientes;
+    private long eliminadosRecientes;
+    private Duration ventanaRecientes;
+    private Instant reconciliadoEn;
+}
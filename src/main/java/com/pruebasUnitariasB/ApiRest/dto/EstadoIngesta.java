@@ -0,0 +1,36 @@
+package com.pruebasUnitariasB.ApiRest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//Estado de un alta encolada en modo asincrono, se consulta con el codigo de seguimiento
+@Getter
+@AllArgsConstructor
+public class EstadoIngesta {
+    public enum Estado {
+        PENDIENTE, CREADO, DUPLICADO, INVALIDO, ERROR
+    }
+
+    private String seguimiento;
+    private Estado estado;
+    private Long empleadoId;
+    private String mensaje;
+
+    public static EstadoIngesta pendiente(String seguimiento) {
+        return new EstadoIngesta(seguimiento, Estado.PENDIENTE, null, null);
+    }
+
+    public static EstadoIngesta desde(String seguimiento, ResultadoLote resultado) {
+        Estado estado = switch (resultado.getEstado()) {
+            case CREADO -> Estado.CREADO;
+            case DUPLICADO -> Estado.DUPLICADO;
+            case INVALIDO -> Estado.INVALIDO;
+            default -> Estado.ERROR;
+        };
+        return new EstadoIngesta(seguimiento, estado, resultado.getId(), resultado.getMensaje());
+    }
+
+    public static EstadoIngesta error(String seguimiento, String mensaje) {
+        return new EstadoIngesta(seguimiento, Estado.ERROR, null, mensaje);
+    }
+}
@@ -0,0 +1,37 @@
+package com.pruebasUnitariasB.ApiRest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class Pagina<T> {
+    private static final String PREFIJO_CURSOR = "id:";
+
+    private List<T> contenido;
+    private String siguienteCursor;
+
+    public static String codificarCursor(Long ultimoId) {
+        String valor = PREFIJO_CURSOR + ultimoId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Long decodificarCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!valor.startsWith(PREFIJO_CURSOR)) {
+                throw new IllegalArgumentException("Cursor invalido: " + cursor);
+            }
+            return Long.parseLong(valor.substring(PREFIJO_CURSOR.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor invalido: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.pruebasUnitariasB.ApiRest.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//Cada linea NDJSON que devuelve la importacion: errores por linea, progreso cada lote y un resumen final
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReporteImportacion {
+    public enum Tipo {
+        ERROR, PROGRESO, RESUMEN
+    }
+
+    private Tipo tipo;
+    private Long linea;
+    private String mensaje;
+    private Long lineas;
+    private Long creados;
+    private Long errores;
+
+    public static ReporteImportacion error(long linea, String mensaje) {
+        return new ReporteImportacion(Tipo.ERROR, linea, mensaje, null, null, null);
+    }
+
+    public static ReporteImportacion progreso(long lineas, long creados, long errores) {
+        return new ReporteImportacion(Tipo.PROGRESO, null, null, lineas, creados, errores);
+    }
+
+    public static ReporteImportacion resumen(long lineas, long creados, long errores) {
+        return new ReporteImportacion(Tipo.RESUMEN, null, null, lineas, creados, errores);
+    }
+}
@@ -0,0 +1,24 @@
+package com.pruebasUnitariasB.ApiRest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ResultadoActualizacion {
+    public enum Estado {
+        ACTUALIZADO, NO_ENCONTRADO, CONFLICTO_VERSION
+    }
+
+    private Estado estado;
+    //Version del empleado tras la actualizacion; null si no se actualizo
+    private Long version;
+
+    public static ResultadoActualizacion actualizado(Long version) {
+        return new ResultadoActualizacion(Estado.ACTUALIZADO, version);
+    }
+
+    public static ResultadoActualizacion error(Estado estado) {
+        return new ResultadoActualizacion(estado, null);
+    }
+}
@@ -0,0 +1,25 @@
+package com.pruebasUnitariasB.ApiRest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ResultadoLote {
+    public enum Estado {
+        CREADO, ACTUALIZADO, ELIMINADO, DUPLICADO, NO_ENCONTRADO, INVALIDO, CONFLICTO_VERSION
+    }
+
+    private int indice;
+    private Long id;
+    private Estado estado;
+    private String mensaje;
+
+    public static ResultadoLote ok(int indice, Long id, Estado estado) {
+        return new ResultadoLote(indice, id, estado, null);
+    }
+
+    public static ResultadoLote error(int indice, Long id, Estado estado, String mensaje) {
+        return new ResultadoLote(indice, id, estado, mensaje);
+    }
+}
@@ -0,0 +1,75 @@
+package com.pruebasUnitariasB.ApiRest.eliminacion;
+
+import com.pruebasUnitariasB.ApiRest.repository.EmpleadoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+
+//Borra de verdad las lapidas del borrado logico con mas antiguedad que la retencion. Cada lote va en su propia
+//transaccion para no bloquear muchas filas ni alargar una transaccion mientras quedan lapidas.
+@Component
+@ConditionalOnProperty(name = "empleados.eliminacion.logica", havingValue = "true")
+public class PurgaEliminados implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(PurgaEliminados.class);
+
+    private final EmpleadoRepository empleadoRepository;
+    private final TransactionTemplate transaccion;
+    private final Duration retencion;
+    private final int tamanioLote;
+    private Counter purgados;
+
+    public PurgaEliminados(EmpleadoRepository empleadoRepository, PlatformTransactionManager transactionManager,
+                           @Value("${empleados.eliminacion.retencion:PT24H}") Duration retencion,
+                           @Value("${empleados.eliminacion.purga.tamanio-lote:500}") int tamanioLote) {
+        this.empleadoRepository = empleadoRepository;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.retencion = retencion;
+        this.tamanioLote = tamanioLote;
+    }
+
+    @Scheduled(fixedDelayString = "${empleados.eliminacion.purga.intervalo:PT1M}",
+            initialDelayString = "${empleados.eliminacion.purga.intervalo:PT1M}")
+    public void programada() {
+        try {
+            purgar(Instant.now().minus(retencion));
+        } catch (RuntimeException e) {
+            log.warn("Fallo la purga de empleados eliminados", e);
+        }
+    }
+
+    //Sigue mientras los lotes salen llenos; devuelve cuantas filas se borraron
+    public int purgar(Instant limite) {
+        int total = 0;
+        int borradas;
+        do {
+            borradas = transaccion.execute(estado -> empleadoRepository.purgarEliminados(limite, tamanioLote));
+            total += borradas;
+            if (purgados != null) {
+                purgados.increment(borradas);
+            }
+        } while (borradas == tamanioLote);
+        if (total > 0) {
+            log.info("Purgados {} empleados eliminados antes de {}", total, limite);
+        }
+        return total;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        purgados = Counter.builder("empleados.eliminacion.purgados")
+                .description("Lapidas del borrado logico borradas por la purga")
+                .register(registry);
+    }
+}
@@ -0,0 +1,79 @@
+package com.pruebasUnitariasB.ApiRest.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+//Fila del outbox de cambios: se escribe en la misma transaccion que el cambio del empleado. En las bajas
+//solo se guardan el id y el email que tenia y en las actualizaciones parciales los campos enviados; el resto
+//quedan vacios.
+@Entity
+@Table(name="cambios_empleados", indexes = @Index(name = "ux_cambios_empleados_orden", columnList = "orden", unique = true))
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CambioEmpleado {
+    public enum Tipo {
+        CREADO, ACTUALIZADO, ELIMINADO
+    }
+
+    //Se reserva por rangos en cada nodo: no sirve como cursor del feed, para eso esta orden
+    @JsonIgnore
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cambios_empleados_seq")
+    @SequenceGenerator(name = "cambios_empleados_seq", sequenceName = "cambios_empleados_seq", allocationSize = 50)
+    private Long secuencia;
+    @Column(name="empleado_id", nullable = false)
+    private Long empleadoId;
+    @Enumerated(EnumType.STRING)
+    @Column(name="tipo", nullable = false, length = 20)
+    private Tipo tipo;
+    @Column(name="version")
+    private Long version;
+    @Column(name="nombre")
+    private String nombre;
+    @Column(name="apellido")
+    private String apellido;
+    @Column(name="email")
+    private String email;
+    @Column(name="fecha", nullable = false)
+    private Instant fecha;
+    //Lo asigna la base de datos al insertar (V4) y es el cursor del feed; en los cambios recien guardados queda a null
+    @Column(name="orden", insertable = false, updatable = false)
+    private Long orden;
+    //Email previo a una actualizacion, solo en memoria: lo usan las estadisticas para mover el dominio
+    @JsonIgnore
+    @Transient
+    private String emailAnterior;
+
+    public static CambioEmpleado de(Tipo tipo, Empleado empleado) {
+        return CambioEmpleado.builder()
+                .empleadoId(empleado.getId())
+                .tipo(tipo)
+                .version(empleado.getVersion())
+                .nombre(empleado.getNombre())
+                .apellido(empleado.getApellido())
+                .email(empleado.getEmail())
+                .fecha(Instant.now())
+                .build();
+    }
+
+    public static CambioEmpleado actualizado(Empleado empleado, String emailAnterior) {
+        CambioEmpleado cambio = de(Tipo.ACTUALIZADO, empleado);
+        cambio.setEmailAnterior(emailAnterior);
+        return cambio;
+    }
+
+    public static CambioEmpleado eliminado(Long empleadoId, String email) {
+        return CambioEmpleado.builder()
+                .empleadoId(empleadoId)
+                .tipo(Tipo.ELIMINADO)
+                .email(email)
+                .fecha(Instant.now())
+                .build();
+    }
+}
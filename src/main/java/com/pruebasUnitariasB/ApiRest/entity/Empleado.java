@@ -1,18 +1,33 @@
 package com.pruebasUnitariasB.ApiRest.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Where;
+
+import java.time.Instant;
 
 @Entity
-@Table(name="empleados")
+@Table(name="empleados", indexes = {
+        @Index(name = Empleado.INDICE_EMAIL, columnList = "email", unique = true),
+        @Index(name = "ix_empleados_nombre_busqueda", columnList = "nombre_busqueda, id"),
+        @Index(name = "ix_empleados_apellido_busqueda", columnList = "apellido_busqueda, id"),
+        @Index(name = "ix_empleados_email_busqueda", columnList = "email_busqueda, id"),
+        @Index(name = "ix_empleados_eliminado_en", columnList = "eliminado_en")
+})
+//Con el borrado logico activado las filas eliminadas quedan como lapidas hasta la purga; ninguna lectura las ve
+@Where(clause = "eliminado_en is null")
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class Empleado {
+    public static final String INDICE_EMAIL = "ux_empleados_email";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "empleados_seq")
+    @SequenceGenerator(name = "empleados_seq", sequenceName = "empleados_seq", allocationSize = 50)
     private Long id;
     @Column(name="nombre", nullable = false)
     private String nombre;
@@ -20,4 +35,25 @@ public class Empleado {
     private String apellido;
     @Column(name="email", nullable = false)
     private String email;
+    @Version
+    @Column(name="version")
+    private Long version;
+
+    //Columnas calculadas por la base de datos en minusculas, indexadas junto al id para la busqueda por prefijo
+    @JsonIgnore
+    @Column(name="nombre_busqueda", insertable = false, updatable = false,
+            columnDefinition = "varchar(255) generated always as (lower(nombre))")
+    private String nombreBusqueda;
+    @JsonIgnore
+    @Column(name="apellido_busqueda", insertable = false, updatable = false,
+            columnDefinition = "varchar(255) generated always as (lower(apellido))")
+    private String apellidoBusqueda;
+    @JsonIgnore
+    @Column(name="email_busqueda", insertable = false, updatable = false,
+            columnDefinition = "varchar(255) generated always as (lower(email))")
+    private String emailBusqueda;
+
+    @JsonIgnore
+    @Column(name="eliminado_en")
+    private Instant eliminadoEn;
 }
@@ -0,0 +1,214 @@
+package com.pruebasUnitariasB.ApiRest.estadisticas;
+
+import com.pruebasUnitariasB.ApiRest.cambios.CambiosConfirmados;
+import com.pruebasUnitariasB.ApiRest.dto.ConteoDominio;
+import com.pruebasUnitariasB.ApiRest.dto.EstadisticasEmpleados;
+import com.pruebasUnitariasB.ApiRest.entity.CambioEmpleado;
+import com.pruebasUnitariasB.ApiRest.repository.EmpleadoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+//Totales de empleados mantenidos con cada commit a partir de los cambios del outbox, asi las estadisticas se leen
+//sin recorrer la tabla: un LongAdder para el total y otro por dominio, nada por empleado. Las bajas llevan el email
+//que tenia el empleado y las actualizaciones el anterior, con eso se resta del dominio correcto.
+//Lo que los cambios no cuentan (las escrituras del perfil reactivo) se corrige en la reconciliacion periodica.
+@Component
+public class ContadoresEmpleados {
+
+    private static final Logger log = LoggerFactory.getLogger(ContadoresEmpleados.class);
+    private static final int CUBETAS = 60;
+
+    private final EmpleadoRepository empleadoRepository;
+    private final Duration ventana;
+    private final LongSupplier reloj;
+
+    private final LongAdder total = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> porDominio = new ConcurrentHashMap<>();
+    private final Recientes creados;
+    private final Recientes eliminados;
+    //Cambios aplicados desde el arranque; la reconciliacion lo compara antes y despues de sus consultas
+    private final LongAdder aplicados = new LongAdder();
+    private volatile Instant reconciliadoEn;
+
+    @Autowired
+    public ContadoresEmpleados(EmpleadoRepository empleadoRepository,
+                               @Value("${empleados.estadisticas.ventana-recientes:PT1H}") Duration ventana) {
+        this(empleadoRepository, ventana, System::currentTimeMillis);
+    }
+
+    ContadoresEmpleados(EmpleadoRepository empleadoRepository, Duration ventana, LongSupplier reloj) {
+        this.empleadoRepository = empleadoRepository;
+        this.ventana = ventana;
+        this.reloj = reloj;
+        long anchoCubeta = Math.max(1, ventana.toMillis() / CUBETAS);
+        this.creados = new Recientes(anchoCubeta);
+        this.eliminados = new Recientes(anchoCubeta);
+    }
+
+    @EventListener
+    public void alConfirmar(CambiosConfirmados confirmados) {
+        long ahora = reloj.getAsLong();
+        for (CambioEmpleado cambio : confirmados.cambios()) {
+            switch (cambio.getTipo()) {
+                case CREADO -> {
+                    total.increment();
+                    contador(dominio(cambio.getEmail())).increment();
+                    creados.sumar(ahora);
+                }
+                //Las bajas anteriores a que el outbox guardara el email solo restan del total
+                case ELIMINADO -> {
+                    total.decrement();
+                    if (cambio.getEmail() != null) {
+                        contador(dominio(cambio.getEmail())).decrement();
+                    }
+                    eliminados.sumar(ahora);
+                }
+                //Sin email nuevo o sin el anterior (parciales sin email, empleado ya borrado) el dominio no cambia
+                case ACTUALIZADO -> {
+                    if (cambio.getEmail() != null && cambio.getEmailAnterior() != null) {
+                        String nuevo = dominio(cambio.getEmail());
+                        String anterior = dominio(cambio.getEmailAnterior());
+                        if (!nuevo.equals(anterior)) {
+                            contador(anterior).decrement();
+                            contador(nuevo).increment();
+                        }
+                    }
+                }
+            }
+            aplicados.increment();
+        }
+    }
+
+    public EstadisticasEmpleados estadisticas() {
+        Map<String, Long> dominios = new TreeMap<>();
+        porDominio.forEach((nombre, cuenta) -> {
+            long valor = cuenta.sum();
+            if (valor > 0) {
+                dominios.put(nombre, valor);
+            }
+        });
+        long ahora = reloj.getAsLong();
+        return new EstadisticasEmpleados(total.sum(), dominios, creados.total(ahora), eliminados.total(ahora),
+                ventana, reconciliadoEn);
+    }
+
+    //Dos consultas agregadas (count y group by dominio) en lugar de recorrer la tabla. Si mientras tanto se aplico
+    //algun cambio no se sabe si las consultas lo ven, asi que se descarta el resultado y se reintenta en la
+    //siguiente pasada. Los contadores se llevan al valor leido sumando la diferencia, sin perder otras sumas.
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${empleados.estadisticas.reconciliacion.intervalo:PT5M}",
+            initialDelayString = "${empleados.estadisticas.reconciliacion.intervalo:PT5M}")
+    @Transactional(readOnly = true)
+    public synchronized void reconciliar() {
+        try {
+            long antes = aplicados.sum();
+            long totalReal = empleadoRepository.count();
+            Map<String, Long> dominiosReales = new HashMap<>();
+            for (ConteoDominio conteo : empleadoRepository.contarPorDominio()) {
+                dominiosReales.merge(normalizar(conteo.getDominio()), conteo.getCuenta(), Long::sum);
+            }
+            if (aplicados.sum() != antes) {
+                log.debug("Reconciliacion de estadisticas aplazada: hubo cambios durante las consultas");
+                return;
+            }
+            ajustar(total, totalReal);
+            porDominio.forEach((nombre, cuenta) -> {
+                if (!dominiosReales.containsKey(nombre)) {
+                    ajustar(cuenta, 0);
+                }
+            });
+            dominiosReales.forEach((nombre, valor) -> ajustar(contador(nombre), valor));
+            reconciliadoEn = Instant.ofEpochMilli(reloj.getAsLong());
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron reconciliar las estadisticas de empleados", e);
+        }
+    }
+
+    private LongAdder contador(String dominio) {
+        return porDominio.computeIfAbsent(dominio, clave -> new LongAdder());
+    }
+
+    private static void ajustar(LongAdder contador, long valor) {
+        contador.add(valor - contador.sum());
+    }
+
+    private static String dominio(String email) {
+        if (email == null) {
+            return "";
+        }
+        return normalizar(email.substring(email.indexOf('@') + 1));
+    }
+
+    private static String normalizar(String dominio) {
+        return dominio == null ? "" : dominio.toLowerCase(Locale.ROOT);
+    }
+
+    //Ventana deslizante de CUBETAS cubetas. Al rotar se sustituye la cubeta entera (intervalo y cuenta) en un solo
+    //compareAndSet, asi ninguna suma cae en una cuenta que otro hilo esta poniendo a cero; solo se crea un objeto
+    //por cubeta y rotacion, y leer recorre siempre el mismo numero de cubetas
+    private static final class Recientes {
+        private final long anchoCubeta;
+        private final AtomicReferenceArray<Cubeta> cubetas = new AtomicReferenceArray<>(CUBETAS);
+
+        Recientes(long anchoCubeta) {
+            this.anchoCubeta = anchoCubeta;
+        }
+
+        void sumar(long ahora) {
+            long intervalo = ahora / anchoCubeta;
+            int indice = (int) (intervalo % CUBETAS);
+            Cubeta cubeta = cubetas.get(indice);
+            while (cubeta == null || cubeta.intervalo < intervalo) {
+                Cubeta nueva = new Cubeta(intervalo);
+                if (cubetas.compareAndSet(indice, cubeta, nueva)) {
+                    cubeta = nueva;
+                } else {
+                    cubeta = cubetas.get(indice);
+                }
+            }
+            //Si otro hilo ya roto a un intervalo posterior la suma ha salido de la ventana y se descarta
+            if (cubeta.intervalo == intervalo) {
+                cubeta.cuenta.increment();
+            }
+        }
+
+        long total(long ahora) {
+            long actual = ahora / anchoCubeta;
+            long suma = 0;
+            for (int i = 0; i < CUBETAS; i++) {
+                Cubeta cubeta = cubetas.get(i);
+                if (cubeta != null && cubeta.intervalo > actual - CUBETAS) {
+                    suma += cubeta.cuenta.sum();
+                }
+            }
+            return suma;
+        }
+    }
+
+    private static final class Cubeta {
+        private final long intervalo;
+        private final LongAdder cuenta = new LongAdder();
+
+        Cubeta(long intervalo) {
+            this.intervalo = intervalo;
+        }
+    }
+}
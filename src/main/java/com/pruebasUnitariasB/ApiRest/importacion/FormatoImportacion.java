@@ -0,0 +1,20 @@
+package com.pruebasUnitariasB.ApiRest.importacion;
+
+import java.util.Locale;
+
+public enum FormatoImportacion {
+    CSV, NDJSON;
+
+    //Se usa el Content-Type de la parte y, si es generico, la extension del fichero
+    public static FormatoImportacion detectar(String contentType, String nombreFichero) {
+        String tipo = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+        String nombre = nombreFichero == null ? "" : nombreFichero.toLowerCase(Locale.ROOT);
+        if (tipo.startsWith("text/csv") || nombre.endsWith(".csv")) {
+            return CSV;
+        }
+        if (tipo.startsWith("application/x-ndjson") || nombre.endsWith(".ndjson") || nombre.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Formato de importacion no soportado, se espera CSV o NDJSON: " + nombreFichero);
+    }
+}
@@ -0,0 +1,293 @@
+package com.pruebasUnitariasB.ApiRest.importacion;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pruebasUnitariasB.ApiRest.dto.ReporteImportacion;
+import com.pruebasUnitariasB.ApiRest.dto.ResultadoLote;
+import com.pruebasUnitariasB.ApiRest.entity.Empleado;
+import com.pruebasUnitariasB.ApiRest.service.EmpleadoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+//Lee el fichero linea a linea y guarda por lotes con guardarEmpleados (validacion, duplicados contra la
+//base de datos en una consulta por lote y saveAll). En memoria solo esta el lote actual y una linea de como
+//mucho longitudMaximaLinea caracteres: las mas largas se descartan y se informan como error de esa fila.
+@Component
+public class ImportadorEmpleados {
+
+    @Autowired
+    private EmpleadoService empleadoService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${empleados.lote.tamanio:500}")
+    private int tamanioLote = 500;
+
+    @Value("${empleados.importacion.longitud-maxima-linea:65536}")
+    private int longitudMaximaLinea = 65536;
+
+    public void importar(InputStream entrada, FormatoImportacion formato, Consumer<ReporteImportacion> reporte)
+            throws IOException {
+        Progreso progreso = new Progreso(reporte);
+        LectorLineas lector = new LectorLineas(new InputStreamReader(entrada, StandardCharsets.UTF_8),
+                longitudMaximaLinea);
+        String linea = lector.leer();
+        long numero = 1;
+        int[] columnas = null;
+        if (formato == FormatoImportacion.CSV) {
+            try {
+                if (lector.excedida()) {
+                    throw new IllegalArgumentException(mensajeLineaLarga());
+                }
+                columnas = columnasCsv(linea);
+            } catch (IllegalArgumentException e) {
+                progreso.error(numero, e.getMessage());
+                progreso.terminar();
+                return;
+            }
+            linea = lector.leer();
+            numero++;
+        }
+        for (; linea != null; linea = lector.leer(), numero++) {
+            if (!lector.excedida() && linea.isBlank()) {
+                continue;
+            }
+            progreso.lineas++;
+            try {
+                if (lector.excedida()) {
+                    throw new IllegalArgumentException(mensajeLineaLarga());
+                }
+                Empleado empleado = formato == FormatoImportacion.CSV ? desdeCsv(linea, columnas) : desdeNdjson(linea);
+                progreso.agregar(numero, empleado);
+            } catch (IllegalArgumentException e) {
+                progreso.error(numero, e.getMessage());
+            }
+        }
+        progreso.terminar();
+    }
+
+    private String mensajeLineaLarga() {
+        return "La linea supera los " + longitudMaximaLinea + " caracteres";
+    }
+
+    private Empleado desdeNdjson(String linea) {
+        try {
+            return objectMapper.readValue(linea, Empleado.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("JSON invalido: " + e.getOriginalMessage());
+        }
+    }
+
+    //Posicion de nombre, apellido y email en la cabecera, en cualquier orden
+    private static int[] columnasCsv(String cabecera) {
+        if (cabecera == null) {
+            throw new IllegalArgumentException("El fichero esta vacio");
+        }
+        List<String> nombres = separarCsv(cabecera.replace("\uFEFF", ""));
+        String[] requeridas = {"nombre", "apellido", "email"};
+        int[] columnas = new int[requeridas.length];
+        for (int i = 0; i < requeridas.length; i++) {
+            columnas[i] = -1;
+            for (int j = 0; j < nombres.size(); j++) {
+                if (nombres.get(j).trim().toLowerCase(Locale.ROOT).equals(requeridas[i])) {
+                    columnas[i] = j;
+                }
+            }
+            if (columnas[i] < 0) {
+                throw new IllegalArgumentException("Falta la columna " + requeridas[i] + " en la cabecera");
+            }
+        }
+        return columnas;
+    }
+
+    private static Empleado desdeCsv(String linea, int[] columnas) {
+        List<String> campos = separarCsv(linea);
+        return Empleado.builder()
+                .nombre(campo(campos, columnas[0]))
+                .apellido(campo(campos, columnas[1]))
+                .email(campo(campos, columnas[2]))
+                .build();
+    }
+
+    //Un campo vacio cuenta como ausente para que la validacion de columnas obligatorias lo rechace
+    private static String campo(List<String> campos, int indice) {
+        if (indice >= campos.size()) {
+            return null;
+        }
+        String valor = campos.get(indice).trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    //Separador coma y comillas dobles con "" como escape, sin saltos de linea dentro de un campo
+    static List<String> separarCsv(String linea) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c != '"') {
+                    actual.append(c);
+                } else if (i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else {
+                    entreComillas = false;
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        if (entreComillas) {
+            throw new IllegalArgumentException("Comillas sin cerrar");
+        }
+        campos.add(actual.toString());
+        return campos;
+    }
+
+    //readLine no tiene limite y una sola linea de varios GB se cargaria entera. Este lector guarda como mucho
+    //longitudMaxima caracteres por linea; del resto solo busca el salto de linea y marca la linea como excedida
+    static final class LectorLineas {
+        private final Reader lector;
+        private final int longitudMaxima;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder linea = new StringBuilder();
+        private int posicion;
+        private int fin;
+        private boolean excedida;
+
+        LectorLineas(Reader lector, int longitudMaxima) {
+            this.lector = lector;
+            this.longitudMaxima = longitudMaxima;
+        }
+
+        //null al final del fichero; acepta \n y \r\n como fin de linea
+        String leer() throws IOException {
+            linea.setLength(0);
+            excedida = false;
+            boolean leido = false;
+            while (true) {
+                if (posicion == fin) {
+                    fin = Math.max(0, lector.read(buffer, 0, buffer.length));
+                    posicion = 0;
+                    if (fin == 0) {
+                        return leido ? terminar() : null;
+                    }
+                }
+                leido = true;
+                char c = buffer[posicion++];
+                if (c == '\n') {
+                    return terminar();
+                }
+                if (linea.length() <= longitudMaxima) {
+                    linea.append(c);
+                } else {
+                    excedida = true;
+                }
+            }
+        }
+
+        boolean excedida() {
+            return excedida;
+        }
+
+        //Se guarda un caracter de mas para no contar como excedida una linea justa terminada en \r
+        private String terminar() {
+            if (linea.length() > 0 && linea.charAt(linea.length() - 1) == '\r') {
+                linea.setLength(linea.length() - 1);
+            }
+            if (linea.length() > longitudMaxima) {
+                excedida = true;
+            }
+            return excedida ? "" : linea.toString();
+        }
+    }
+
+    private class Progreso {
+        private final Consumer<ReporteImportacion> reporte;
+        private final List<Empleado> lote = new ArrayList<>();
+        private final List<Long> numerosLinea = new ArrayList<>();
+        private long lineas;
+        private long creados;
+        private long errores;
+
+        private Progreso(Consumer<ReporteImportacion> reporte) {
+            this.reporte = reporte;
+        }
+
+        private void agregar(long numero, Empleado empleado) {
+            lote.add(empleado);
+            numerosLinea.add(numero);
+            if (lote.size() >= tamanioLote) {
+                guardarLote();
+                reporte.accept(ReporteImportacion.progreso(lineas, creados, errores));
+            }
+        }
+
+        private void error(long numero, String mensaje) {
+            errores++;
+            reporte.accept(ReporteImportacion.error(numero, mensaje));
+        }
+
+        private void guardarLote() {
+            try {
+                List<ResultadoLote> resultados = empleadoService.guardarEmpleados(lote);
+                for (ResultadoLote resultado : resultados) {
+                    if (resultado.getEstado() == ResultadoLote.Estado.CREADO) {
+                        creados++;
+                    } else {
+                        error(numerosLinea.get(resultado.getIndice()), resultado.getMensaje());
+                    }
+                }
+            } catch (DataIntegrityViolationException e) {
+                //Una fila que choca (p. ej. un email dado de alta a la vez por otra peticion) deshace el lote
+                //entero: se reintenta fila a fila para guardar las demas y atribuir el error a su linea
+                for (int i = 0; i < lote.size(); i++) {
+                    guardarFila(numerosLinea.get(i), lote.get(i));
+                }
+            } catch (RuntimeException e) {
+                numerosLinea.forEach(numero -> error(numero, "No se pudo guardar el lote: " + e.getMessage()));
+            }
+            lote.clear();
+            numerosLinea.clear();
+        }
+
+        private void guardarFila(long numero, Empleado empleado) {
+            try {
+                ResultadoLote resultado = empleadoService.guardarEmpleados(List.of(empleado)).get(0);
+                if (resultado.getEstado() == ResultadoLote.Estado.CREADO) {
+                    creados++;
+                } else {
+                    error(numero, resultado.getMensaje());
+                }
+            } catch (DataIntegrityViolationException e) {
+                error(numero, "No se pudo guardar la fila: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+
+        private void terminar() {
+            if (!lote.isEmpty()) {
+                guardarLote();
+            }
+            reporte.accept(ReporteImportacion.resumen(lineas, creados, errores));
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.pruebasUnitariasB.ApiRest.ingesta;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pruebasUnitariasB.ApiRest.dto.EstadoIngesta;
+import com.pruebasUnitariasB.ApiRest.dto.ResultadoLote;
+import com.pruebasUnitariasB.ApiRest.entity.Empleado;
+import com.pruebasUnitariasB.ApiRest.service.EmpleadoService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//Modo asincrono de altas: POST /api/empleados encola y un unico hilo escritor guarda por lotes con
+//guardarEmpleados, asi las rafagas ocupan una conexion del pool en vez de una por peticion.
+@Component
+@ConditionalOnProperty(name = "empleados.ingesta.asincrona.enabled", havingValue = "true")
+public class ColaIngesta implements SmartLifecycle, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(ColaIngesta.class);
+
+    private final EmpleadoService empleadoService;
+    private final BlockingQueue<Pendiente> cola;
+    private final Cache<String, EstadoIngesta> estados;
+    private final int tamanioLote;
+    private final Duration espera;
+    private final Duration drenadoMaximo;
+
+    //encolar comprueba activo y ofrece bajo el candado de lectura; stop lo desactiva con el de escritura, asi
+    //ninguna alta aceptada entra en la cola despues de que el escritor pueda verla vacia y terminar
+    private final ReadWriteLock apagado = new ReentrantReadWriteLock();
+    private volatile boolean activo;
+    private Thread escritor;
+
+    public ColaIngesta(EmpleadoService empleadoService,
+                       @Value("${empleados.ingesta.capacidad:10000}") int capacidad,
+                       @Value("${empleados.ingesta.tamanio-lote:500}") int tamanioLote,
+                       @Value("${empleados.ingesta.espera:PT0.05S}") Duration espera,
+                       @Value("${empleados.ingesta.estados-maximos:100000}") long estadosMaximos,
+                       @Value("${empleados.ingesta.estados-ttl:PT1H}") Duration estadosTtl,
+                       @Value("${empleados.ingesta.drenado-maximo:PT30S}") Duration drenadoMaximo) {
+        this.empleadoService = empleadoService;
+        this.cola = new ArrayBlockingQueue<>(capacidad);
+        this.estados = Caffeine.newBuilder()
+                .maximumSize(estadosMaximos)
+                .expireAfterWrite(estadosTtl)
+                .build();
+        this.tamanioLote = tamanioLote;
+        this.espera = espera;
+        this.drenadoMaximo = drenadoMaximo;
+    }
+
+    //Vacio si la cola esta llena o se esta apagando: el controlador responde 429
+    public Optional<EstadoIngesta> encolar(Empleado empleado) {
+        apagado.readLock().lock();
+        try {
+            if (!activo) {
+                return Optional.empty();
+            }
+            EstadoIngesta estado = EstadoIngesta.pendiente(UUID.randomUUID().toString());
+            estados.put(estado.getSeguimiento(), estado);
+            if (!cola.offer(new Pendiente(estado.getSeguimiento(), empleado))) {
+                estados.invalidate(estado.getSeguimiento());
+                return Optional.empty();
+            }
+            return Optional.of(estado);
+        } finally {
+            apagado.readLock().unlock();
+        }
+    }
+
+    public Optional<EstadoIngesta> estado(String seguimiento) {
+        return Optional.ofNullable(estados.getIfPresent(seguimiento));
+    }
+
+    public int pendientes() {
+        return cola.size();
+    }
+
+    private void escribir() {
+        List<Pendiente> lote = new ArrayList<>(tamanioLote);
+        while (activo || !cola.isEmpty()) {
+            Pendiente primero;
+            try {
+                primero = cola.poll(espera.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (primero == null) {
+                continue;
+            }
+            lote.add(primero);
+            cola.drainTo(lote, tamanioLote - 1);
+            guardar(lote);
+            lote.clear();
+        }
+    }
+
+    //Una restriccion violada (p. ej. un email que otra peticion dio de alta entre la comprobacion y el INSERT)
+    //deshace la transaccion del lote entero: se parte en mitades y se reintenta, asi solo el alta que choca acaba
+    //en ERROR y las demas, ya aceptadas con 202, se guardan
+    private void guardar(List<Pendiente> lote) {
+        try {
+            List<ResultadoLote> resultados = empleadoService.guardarEmpleados(lote.stream().map(Pendiente::empleado).toList());
+            for (int i = 0; i < lote.size(); i++) {
+                String seguimiento = lote.get(i).seguimiento();
+                estados.put(seguimiento, EstadoIngesta.desde(seguimiento, resultados.get(i)));
+            }
+        } catch (DataIntegrityViolationException e) {
+            if (lote.size() == 1) {
+                log.warn("No se pudo guardar el alta {}: {}", lote.get(0).seguimiento(), e.getMostSpecificCause().getMessage());
+                estados.put(lote.get(0).seguimiento(), EstadoIngesta.error(lote.get(0).seguimiento(),
+                        e.getMostSpecificCause().getMessage()));
+                return;
+            }
+            int mitad = lote.size() / 2;
+            guardar(lote.subList(0, mitad));
+            guardar(lote.subList(mitad, lote.size()));
+        } catch (RuntimeException e) {
+            log.error("No se pudo guardar un lote de {} empleados", lote.size(), e);
+            lote.forEach(pendiente -> estados.put(pendiente.seguimiento(),
+                    EstadoIngesta.error(pendiente.seguimiento(), e.getMessage())));
+        }
+    }
+
+    @Override
+    public void start() {
+        activo = true;
+        escritor = new Thread(this::escribir, "ingesta-empleados");
+        escritor.start();
+    }
+
+    //Se deja de aceptar y el escritor vacia lo que quede en la cola antes de que se cierre el DataSource
+    @Override
+    public void stop() {
+        apagado.writeLock().lock();
+        try {
+            activo = false;
+        } finally {
+            apagado.writeLock().unlock();
+        }
+        try {
+            escritor.join(drenadoMaximo.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (escritor.isAlive()) {
+            log.warn("La cola de ingesta no termino de vaciarse, quedan {} empleados sin guardar", cola.size());
+            escritor.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return activo;
+    }
+
+    //Fase menor que la del servidor web: se detiene despues de que este deje de aceptar peticiones
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("empleados.ingesta.pendientes", cola, BlockingQueue::size)
+                .description("Altas encoladas pendientes de guardar")
+                .register(registry);
+    }
+
+    private record Pendiente(String seguimiento, Empleado empleado) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.pruebasUnitariasB.ApiRest.metricas;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+public class ConsultasPorPeticionInterceptor implements HandlerInterceptor {
+    public static final String METRICA = "empleados.consultas.por.peticion";
+
+    private final MeterRegistry meterRegistry;
+
+    public ConsultasPorPeticionInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ContadorConsultas.reiniciar();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder(METRICA)
+                .description("Sentencias SQL ejecutadas por cada peticion")
+                .baseUnit("consultas")
+                .tag("method", request.getMethod())
+                .tag("uri", uri == null ? "UNKNOWN" : uri.toString())
+                .register(meterRegistry)
+                .record(ContadorConsultas.actuales());
+    }
+}
@@ -0,0 +1,23 @@
+package com.pruebasUnitariasB.ApiRest.metricas;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+//Hibernate llama a inspect por cada sentencia SQL que prepara; el contador es por hilo para poder
+//atribuir las consultas a la peticion HTTP que las provoco.
+public class ContadorConsultas implements StatementInspector {
+    private static final ThreadLocal<int[]> CONSULTAS = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        CONSULTAS.get()[0]++;
+        return sql;
+    }
+
+    public static void reiniciar() {
+        CONSULTAS.get()[0] = 0;
+    }
+
+    public static int actuales() {
+        return CONSULTAS.get()[0];
+    }
+}
@@ -0,0 +1,59 @@
+package com.pruebasUnitariasB.ApiRest.metricas;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+//Publica las estadisticas de Hibernate (hibernate.generate_statistics) con los mismos nombres que usa
+//el modulo hibernate-micrometer, que no esta disponible en el repositorio de dependencias del proyecto.
+@Component
+public class HibernateMetricas implements MeterBinder {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!estadisticas.isStatisticsEnabled()) {
+            return;
+        }
+        contador(registry, estadisticas, "hibernate.sessions.open", Statistics::getSessionOpenCount);
+        contador(registry, estadisticas, "hibernate.connections.obtained", Statistics::getConnectCount);
+        contador(registry, estadisticas, "hibernate.flushes", Statistics::getFlushCount);
+        contador(registry, estadisticas, "hibernate.query.executions", Statistics::getQueryExecutionCount);
+        contador(registry, estadisticas, "hibernate.entities.loads", Statistics::getEntityLoadCount);
+        contador(registry, estadisticas, "hibernate.entities.fetches", Statistics::getEntityFetchCount);
+        contador(registry, estadisticas, "hibernate.entities.inserts", Statistics::getEntityInsertCount);
+        contador(registry, estadisticas, "hibernate.entities.updates", Statistics::getEntityUpdateCount);
+        contador(registry, estadisticas, "hibernate.entities.deletes", Statistics::getEntityDeleteCount);
+        contador(registry, estadisticas, "hibernate.optimistic.failures", Statistics::getOptimisticFailureCount);
+        FunctionCounter.builder("hibernate.statements", estadisticas, Statistics::getPrepareStatementCount)
+                .tag("status", "prepared")
+                .register(registry);
+        FunctionCounter.builder("hibernate.transactions", estadisticas, Statistics::getSuccessfulTransactionCount)
+                .tag("result", "success")
+                .register(registry);
+        FunctionCounter.builder("hibernate.transactions", estadisticas,
+                        e -> e.getTransactionCount() - e.getSuccessfulTransactionCount())
+                .tag("result", "failure")
+                .register(registry);
+        TimeGauge.builder("hibernate.query.executions.max", estadisticas, TimeUnit.MILLISECONDS,
+                        Statistics::getQueryExecutionMaxTime)
+                .register(registry);
+    }
+
+    private static void contador(MeterRegistry registry, Statistics estadisticas, String nombre,
+                                 ToDoubleFunction<Statistics> valor) {
+        FunctionCounter.builder(nombre, estadisticas, valor).register(registry);
+    }
+}
@@ -0,0 +1,24 @@
+package com.pruebasUnitariasB.ApiRest.metricas;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+//Los tests @WebMvcTest cargan los WebMvcConfigurer pero no las metricas, por eso el registro es opcional
+@Configuration
+public class MetricasWebConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public MetricasWebConfig(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        meterRegistry.ifAvailable(meters ->
+                registry.addInterceptor(new ConsultasPorPeticionInterceptor(meters)).addPathPatterns("/api/**"));
+    }
+}
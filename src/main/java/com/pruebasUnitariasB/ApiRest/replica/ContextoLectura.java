@@ -0,0 +1,64 @@
+package com.pruebasUnitariasB.ApiRest.replica;
+
+//Estado del hilo que decide a que base va la siguiente conexion: si se esta dentro de un metodo @LecturaReplica,
+//si la peticion tiene que leer de la primaria para ver sus propias escrituras y si ya ha escrito algo.
+//Fuera de una peticion HTTP (tareas programadas, ingesta asincrona) solo existe mientras dura el metodo anotado.
+final class ContextoLectura {
+
+    private static final ThreadLocal<ContextoLectura> ACTUAL = new ThreadLocal<>();
+
+    private final boolean peticion;
+    private final boolean leerEscrituras;
+    private boolean primaria;
+    private boolean escribio;
+    private int enReplica;
+
+    private ContextoLectura(boolean peticion, boolean leerEscrituras, boolean primaria) {
+        this.peticion = peticion;
+        this.leerEscrituras = leerEscrituras;
+        this.primaria = primaria;
+    }
+
+    static void iniciarPeticion(boolean leerEscrituras, boolean primaria) {
+        ACTUAL.set(new ContextoLectura(true, leerEscrituras, primaria));
+    }
+
+    //Devuelve si hubo escrituras durante la peticion
+    static boolean terminarPeticion() {
+        ContextoLectura contexto = ACTUAL.get();
+        ACTUAL.remove();
+        return contexto != null && contexto.escribio;
+    }
+
+    static void entrarReplica() {
+        ContextoLectura contexto = ACTUAL.get();
+        if (contexto == null) {
+            contexto = new ContextoLectura(false, false, false);
+            ACTUAL.set(contexto);
+        }
+        contexto.enReplica++;
+    }
+
+    static void salirReplica() {
+        ContextoLectura contexto = ACTUAL.get();
+        if (contexto != null && --contexto.enReplica == 0 && !contexto.peticion) {
+            ACTUAL.remove();
+        }
+    }
+
+    //Con lectura de escrituras, a partir de la primera escritura el resto de la peticion lee de la primaria
+    static void marcarEscritura() {
+        ContextoLectura contexto = ACTUAL.get();
+        if (contexto != null) {
+            contexto.escribio = true;
+            if (contexto.leerEscrituras) {
+                contexto.primaria = true;
+            }
+        }
+    }
+
+    static boolean leerDeReplica() {
+        ContextoLectura contexto = ACTUAL.get();
+        return contexto != null && contexto.enReplica > 0 && !contexto.primaria;
+    }
+}
@@ -0,0 +1,33 @@
+package com.pruebasUnitariasB.ApiRest.replica;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+//Elige la base al pedir la conexion fisica. Va envuelto en un LazyConnectionDataSourceProxy: Hibernate pide la
+//conexion al empezar la transaccion, antes de que se publique si es de solo lectura, y el proxy la retrasa
+//hasta la primera sentencia.
+class DataSourceEnrutado extends AbstractRoutingDataSource {
+
+    enum Destino { PRIMARIA, REPLICA }
+
+    DataSourceEnrutado(DataSource primaria, DataSource replica) {
+        setTargetDataSources(Map.of(Destino.PRIMARIA, primaria, Destino.REPLICA, replica));
+        setDefaultTargetDataSource(primaria);
+        afterPropertiesSet();
+    }
+
+    //Solo las transacciones de solo lectura dentro de un metodo @LecturaReplica van a la replica;
+    //cualquier otra transaccion se toma como escritura
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            ContextoLectura.marcarEscritura();
+            return Destino.PRIMARIA;
+        }
+        return ContextoLectura.leerDeReplica() ? Destino.REPLICA : Destino.PRIMARIA;
+    }
+}
@@ -0,0 +1,74 @@
+package com.pruebasUnitariasB.ApiRest.replica;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pruebasUnitariasB.ApiRest.cache.EmpleadoCache;
+import com.pruebasUnitariasB.ApiRest.cache.VersionColeccion;
+import com.pruebasUnitariasB.ApiRest.cambios.CambiosConfirmados;
+import com.pruebasUnitariasB.ApiRest.entity.CambioEmpleado;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+//Lleva los metodos @LecturaReplica a la replica y recuerda durante retraso-maximo que clientes han escrito,
+//para que con lectura de escrituras sus siguientes peticiones lean de la primaria.
+//Una lectura de la replica puede dejar en la cache o en un listado con ETag nuevo los datos anteriores a un
+//cambio que aun no ha llegado; por eso cada cambio confirmado se vuelve a invalidar pasado el retraso maximo.
+@Aspect
+@Component
+@ConditionalOnProperty(name = "empleados.replica.enabled", havingValue = "true")
+public class EnrutamientoLecturas {
+
+    private final EmpleadoCache empleadoCache;
+    private final VersionColeccion versionColeccion;
+    private final TaskScheduler taskScheduler;
+    private final Duration retrasoMaximo;
+    private final Cache<String, Boolean> clientesConEscrituras;
+
+    public EnrutamientoLecturas(EmpleadoCache empleadoCache, VersionColeccion versionColeccion, TaskScheduler taskScheduler,
+                                @Value("${empleados.replica.retraso-maximo:PT5S}") Duration retrasoMaximo) {
+        this.empleadoCache = empleadoCache;
+        this.versionColeccion = versionColeccion;
+        this.taskScheduler = taskScheduler;
+        this.retrasoMaximo = retrasoMaximo;
+        this.clientesConEscrituras = Caffeine.newBuilder()
+                .expireAfterWrite(retrasoMaximo)
+                .build();
+    }
+
+    @Around("@annotation(com.pruebasUnitariasB.ApiRest.replica.LecturaReplica)")
+    public Object leerDeReplica(ProceedingJoinPoint punto) throws Throwable {
+        ContextoLectura.entrarReplica();
+        try {
+            return punto.proceed();
+        } finally {
+            ContextoLectura.salirReplica();
+        }
+    }
+
+    public void registrarEscritura(String cliente) {
+        clientesConEscrituras.put(cliente, Boolean.TRUE);
+    }
+
+    public boolean escribioRecientemente(String cliente) {
+        return clientesConEscrituras.getIfPresent(cliente) != null;
+    }
+
+    @EventListener
+    public void alConfirmar(CambiosConfirmados confirmados) {
+        List<Long> ids = confirmados.cambios().stream().map(CambioEmpleado::getEmpleadoId).distinct().toList();
+        taskScheduler.schedule(() -> {
+            empleadoCache.invalidarTodos(ids);
+            versionColeccion.incrementar();
+        }, Instant.now().plus(retrasoMaximo));
+    }
+}
@@ -0,0 +1,12 @@
+package com.pruebasUnitariasB.ApiRest.replica;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+//Metodo del servicio cuyas consultas de solo lectura pueden ir a la replica. Sin la replica activada no hace nada.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface LecturaReplica {
+}
@@ -0,0 +1,40 @@
+package com.pruebasUnitariasB.ApiRest.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+//Con empleados.replica.enabled=true hay dos pools: la primaria con la configuracion de spring.datasource y la
+//replica con empleados.replica.datasource (propiedades de Hikari: jdbc-url, username, maximum-pool-size...).
+//El DataSource que usan JPA y Flyway es el enrutado, que sin un metodo @LecturaReplica siempre va a la primaria.
+@Configuration
+@ConditionalOnProperty(name = "empleados.replica.enabled", havingValue = "true")
+public class ReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource datosPrimaria(DataSourceProperties propiedades) {
+        return propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("empleados.replica.datasource")
+    public HikariDataSource datosReplica() {
+        return new HikariDataSource();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("datosPrimaria") DataSource primaria,
+                                 @Qualifier("datosReplica") DataSource replica) {
+        return new LazyConnectionDataSourceProxy(new DataSourceEnrutado(primaria, replica));
+    }
+}
@@ -0,0 +1,53 @@
+package com.pruebasUnitariasB.ApiRest.replica;
+
+import com.pruebasUnitariasB.ApiRest.admision.IdentificacionCliente;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+//La cabecera de lectura de escrituras (true/false) decide en cada peticion si el cliente tiene que ver sus
+//propias escrituras; sin ella se aplica el valor por defecto. El cliente se identifica como en la admision.
+public class ReplicaInterceptor implements AsyncHandlerInterceptor {
+
+    private final EnrutamientoLecturas enrutamiento;
+    private final IdentificacionCliente identificacion;
+    private final String cabeceraLeerEscrituras;
+    private final boolean leerEscriturasDefecto;
+
+    public ReplicaInterceptor(EnrutamientoLecturas enrutamiento, IdentificacionCliente identificacion,
+                              String cabeceraLeerEscrituras, boolean leerEscriturasDefecto) {
+        this.enrutamiento = enrutamiento;
+        this.identificacion = identificacion;
+        this.cabeceraLeerEscrituras = cabeceraLeerEscrituras;
+        this.leerEscriturasDefecto = leerEscriturasDefecto;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        boolean leerEscrituras = leerEscrituras(request);
+        boolean primaria = leerEscrituras && enrutamiento.escribioRecientemente(identificacion.cliente(request));
+        ContextoLectura.iniciarPeticion(leerEscrituras, primaria);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        terminar(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        terminar(request);
+    }
+
+    private void terminar(HttpServletRequest request) {
+        if (ContextoLectura.terminarPeticion()) {
+            enrutamiento.registrarEscritura(identificacion.cliente(request));
+        }
+    }
+
+    private boolean leerEscrituras(HttpServletRequest request) {
+        String valor = request.getHeader(cabeceraLeerEscrituras);
+        return valor == null || valor.isBlank() ? leerEscriturasDefecto : Boolean.parseBoolean(valor.trim());
+    }
+}
@@ -0,0 +1,36 @@
+package com.pruebasUnitariasB.ApiRest.replica;
+
+import com.pruebasUnitariasB.ApiRest.admision.IdentificacionCliente;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+//Sin la replica activada no existe EnrutamientoLecturas y el interceptor no se registra
+@Configuration
+public class ReplicaWebConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<EnrutamientoLecturas> enrutamiento;
+    private final IdentificacionCliente identificacion;
+    private final String cabeceraLeerEscrituras;
+    private final boolean leerEscrituras;
+
+    public ReplicaWebConfig(ObjectProvider<EnrutamientoLecturas> enrutamiento,
+                            @Value("${empleados.admision.cabecera-cliente:X-Cliente-Id}") String cabeceraCliente,
+                            @Value("${empleados.admision.confiar-cabecera-cliente:false}") boolean confiarCabecera,
+                            @Value("${empleados.replica.cabecera-leer-escrituras:X-Leer-Escrituras}") String cabeceraLeerEscrituras,
+                            @Value("${empleados.replica.leer-escrituras:true}") boolean leerEscrituras) {
+        this.enrutamiento = enrutamiento;
+        this.identificacion = new IdentificacionCliente(cabeceraCliente, confiarCabecera);
+        this.cabeceraLeerEscrituras = cabeceraLeerEscrituras;
+        this.leerEscrituras = leerEscrituras;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        enrutamiento.ifAvailable(lecturas -> registry.addInterceptor(
+                        new ReplicaInterceptor(lecturas, identificacion, cabeceraLeerEscrituras, leerEscrituras))
+                .addPathPatterns("/api/**"));
+    }
+}
@@ -0,0 +1,27 @@
+package com.pruebasUnitariasB.ApiRest.repository;
+
+import com.pruebasUnitariasB.ApiRest.entity.CambioEmpleado;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CambioEmpleadoRepository extends JpaRepository<CambioEmpleado, Long> {
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select c from CambioEmpleado c where c.orden > :desde order by c.orden")
+    List<CambioEmpleado> findCambiosDesdeOrden(@Param("desde") long desde, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select c from CambioEmpleado c where c.orden in :ordenes")
+    List<CambioEmpleado> findCambiosPorOrden(@Param("ordenes") Collection<Long> ordenes);
+
+    @Query("select coalesce(max(c.orden), 0) from CambioEmpleado c")
+    long findUltimoOrden();
+}
@@ -0,0 +1,96 @@
+package com.pruebasUnitariasB.ApiRest.repository;
+
+import com.pruebasUnitariasB.ApiRest.entity.Empleado;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+@Profile("reactive")
+public class EmpleadoReactiveRepository {
+    //Las lapidas del borrado logico quedan fuera igual que en las consultas JPA
+    private static final String COLUMNAS = "select id, nombre, apellido, email, version from empleados where eliminado_en is null";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Value("${empleados.eliminacion.logica:false}")
+    private boolean eliminacionLogica;
+
+    public Flux<Empleado> findAll() {
+        return databaseClient.sql(COLUMNAS + " order by id")
+                .map(EmpleadoReactiveRepository::mapear)
+                .all();
+    }
+
+    public Mono<Empleado> findById(Long id) {
+        return databaseClient.sql(COLUMNAS + " and id = :id")
+                .bind("id", id)
+                .map(EmpleadoReactiveRepository::mapear)
+                .one();
+    }
+
+    public Mono<Empleado> findByEmail(String email) {
+        return databaseClient.sql(COLUMNAS + " and email = :email")
+                .bind("email", email)
+                .map(EmpleadoReactiveRepository::mapear)
+                .one();
+    }
+
+    //Cada valor de empleados_seq se usa directamente como id. Hibernate reserva con el optimizador
+    //pooled el rango que termina en el valor que obtiene, asi que nunca reparte un valor consumido aqui.
+    public Mono<Empleado> insert(Empleado empleado) {
+        return databaseClient.sql("select next value for empleados_seq")
+                .map(fila -> fila.get(0, Long.class))
+                .one()
+                .flatMap(id -> databaseClient.sql("insert into empleados (id, nombre, apellido, email, version) values (:id, :nombre, :apellido, :email, 0)")
+                        .bind("id", id)
+                        .bind("nombre", empleado.getNombre())
+                        .bind("apellido", empleado.getApellido())
+                        .bind("email", empleado.getEmail())
+                        .fetch()
+                        .rowsUpdated()
+                        .thenReturn(empleado.toBuilder().id(id).version(0L).build()));
+    }
+
+    //Solo actualiza si la version sigue siendo la leida; si no (o si ya no existe) no hay filas y queda vacio.
+    //FINAL TABLE devuelve la fila tal como queda tras el UPDATE, con su version real, en la misma sentencia
+    public Mono<Empleado> update(Empleado empleado) {
+        return databaseClient.sql("select id, nombre, apellido, email, version from final table ("
+                        + "update empleados set nombre = :nombre, apellido = :apellido, email = :email, version = version + 1 "
+                        + "where id = :id and version = :version and eliminado_en is null)")
+                .bind("id", empleado.getId())
+                .bind("version", empleado.getVersion())
+                .bind("nombre", empleado.getNombre())
+                .bind("apellido", empleado.getApellido())
+                .bind("email", empleado.getEmail())
+                .map(EmpleadoReactiveRepository::mapear)
+                .one();
+    }
+
+    //Igual que EmpleadoServiceImpl.deleteEmpleado: con borrado logico deja una lapida para la purga.
+    //Devuelve las filas afectadas, 0 si no existia o ya era una lapida.
+    public Mono<Long> deleteById(Long id) {
+        return databaseClient.sql(eliminacionLogica
+                        ? "update empleados set eliminado_en = current_timestamp, version = version + 1 where id = :id and eliminado_en is null"
+                        : "delete from empleados where id = :id and eliminado_en is null")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static Empleado mapear(Readable fila) {
+        return Empleado.builder()
+                .id(fila.get("id", Long.class))
+                .nombre(fila.get("nombre", String.class))
+                .apellido(fila.get("apellido", String.class))
+                .email(fila.get("email", String.class))
+                .version(fila.get("version", Long.class))
+                .build();
+    }
+}
@@ -1,10 +1,113 @@
 package com.pruebasUnitariasB.ApiRest.repository;
 
+import com.pruebasUnitariasB.ApiRest.dto.ConteoDominio;
+import com.pruebasUnitariasB.ApiRest.dto.EmailEmpleado;
+import com.pruebasUnitariasB.ApiRest.dto.EmpleadoResumen;
 import com.pruebasUnitariasB.ApiRest.entity.Empleado;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface EmpleadoRepository extends JpaRepository<Empleado, Long> {
     Optional<Empleado> findByEmail(String email);
+
+    String SELECT_RESUMEN = "select new com.pruebasUnitariasB.ApiRest.dto.EmpleadoResumen(e.id, e.nombre, e.apellido, e.email, e.version) ";
+
+    @Query(SELECT_RESUMEN + "from Empleado e order by e.id")
+    List<EmpleadoResumen> findAllResumen();
+
+    @Query(SELECT_RESUMEN + "from Empleado e where e.id > :id order by e.id")
+    List<EmpleadoResumen> findResumenDesdeId(@Param("id") Long id, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select e from Empleado e order by e.id")
+    Stream<Empleado> streamAll();
+
+    //Nativas como purgarEliminados: las lapidas siguen ocupando su email en ux_empleados_email hasta la purga
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(nativeQuery = true, value = "select email from empleados")
+    Stream<String> streamEmails();
+
+    //Dominio de la columna normalizada para que coincida con el que calculan las estadisticas
+    @Query("select new com.pruebasUnitariasB.ApiRest.dto.ConteoDominio(" +
+            "substring(e.emailBusqueda, locate('@', e.emailBusqueda) + 1), count(e)) from Empleado e " +
+            "group by substring(e.emailBusqueda, locate('@', e.emailBusqueda) + 1)")
+    List<ConteoDominio> contarPorDominio();
+
+    @Query(nativeQuery = true, value = "select email from empleados where email in :emails")
+    Set<String> findEmailsExistentes(@Param("emails") Collection<String> emails);
+
+    //Las bajas llevan el email al outbox; las filas quedan bloqueadas hasta el DELETE de la misma transaccion
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select new com.pruebasUnitariasB.ApiRest.dto.EmailEmpleado(e.id, e.email) from Empleado e where e.id in :ids")
+    List<EmailEmpleado> findEmailsParaEliminar(@Param("ids") Collection<Long> ids);
+
+    @Query("select e.email from Empleado e where e.id = :id")
+    Optional<String> findEmailById(@Param("id") Long id);
+
+    //Busquedas por prefijo: rango [desde, hasta) sobre la columna normalizada y paginacion por (valor, id),
+    //las dos cosas las resuelve el indice compuesto sin ordenar en memoria
+    @Query(SELECT_RESUMEN + "from Empleado e where e.nombreBusqueda >= :desde and e.nombreBusqueda < :hasta " +
+            "and (e.nombreBusqueda > :valor or (e.nombreBusqueda = :valor and e.id > :id)) " +
+            "order by e.nombreBusqueda, e.id")
+    List<EmpleadoResumen> buscarPorNombre(@Param("desde") String desde, @Param("hasta") String hasta,
+                                   @Param("valor") String valor, @Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_RESUMEN + "from Empleado e where e.apellidoBusqueda >= :desde and e.apellidoBusqueda < :hasta " +
+            "and (e.apellidoBusqueda > :valor or (e.apellidoBusqueda = :valor and e.id > :id)) " +
+            "order by e.apellidoBusqueda, e.id")
+    List<EmpleadoResumen> buscarPorApellido(@Param("desde") String desde, @Param("hasta") String hasta,
+                                     @Param("valor") String valor, @Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_RESUMEN + "from Empleado e where e.emailBusqueda >= :desde and e.emailBusqueda < :hasta " +
+            "and (e.emailBusqueda > :valor or (e.emailBusqueda = :valor and e.id > :id)) " +
+            "order by e.emailBusqueda, e.id")
+    List<EmpleadoResumen> buscarPorEmail(@Param("desde") String desde, @Param("hasta") String hasta,
+                                  @Param("valor") String valor, @Param("id") Long id, Pageable pageable);
+
+    //Un solo UPDATE: solo cambia los campos enviados (los null se conservan) y, si se indica version,
+    //solo actualiza cuando coincide con la version actual de la fila. Como en marcarEliminados, las lapidas del
+    //borrado logico se excluyen en la propia consulta y no solo por el @Where de la entidad
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Empleado e set e.nombre = coalesce(cast(:nombre as String), e.nombre), " +
+            "e.apellido = coalesce(cast(:apellido as String), e.apellido), " +
+            "e.email = coalesce(cast(:email as String), e.email), e.version = e.version + 1 " +
+            "where e.id = :id and e.eliminadoEn is null and (cast(:version as Long) is null or e.version = :version)")
+    int actualizarParcial(@Param("id") Long id, @Param("nombre") String nombre, @Param("apellido") String apellido,
+                          @Param("email") String email, @Param("version") Long version);
+
+    @Query("select e.version from Empleado e where e.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from Empleado e where e.id in :ids")
+    int eliminarPorIds(@Param("ids") Collection<Long> ids);
+
+    //Borrado logico en una sola sentencia: las filas quedan como lapidas hasta la purga
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Empleado e set e.eliminadoEn = :fecha, e.version = e.version + 1 where e.id in :ids and e.eliminadoEn is null")
+    int marcarEliminados(@Param("ids") Collection<Long> ids, @Param("fecha") Instant fecha);
+
+    //Nativa porque las consultas sobre la entidad no ven las lapidas
+    @Modifying
+    @Query(nativeQuery = true, value = "delete from empleados where id in (select id from empleados "
+            + "where eliminado_en < :limite order by id fetch first :tamanio rows only)")
+    int purgarEliminados(@Param("limite") Instant limite, @Param("tamanio") int tamanio);
 }
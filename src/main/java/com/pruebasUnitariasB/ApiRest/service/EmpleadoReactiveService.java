@@ -0,0 +1,13 @@
+package com.pruebasUnitariasB.ApiRest.service;
+
+import com.pruebasUnitariasB.ApiRest.entity.Empleado;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface EmpleadoReactiveService {
+    Mono<Empleado> guardarEmpleado(Empleado empleado);
+    Flux<Empleado> getAllEmpleados();
+    Mono<Empleado> getEmpleadoById(Long id);
+    Mono<Empleado> updateEmpleado(Empleado updateEmpleado);
+    Mono<Boolean> deleteEmpleado(Long id);
+}
@@ -1,14 +1,33 @@
 package com.pruebasUnitariasB.ApiRest.service;
 
+import com.pruebasUnitariasB.ApiRest.dto.CampoBusqueda;
+import com.pruebasUnitariasB.ApiRest.dto.EmpleadoResumen;
+import com.pruebasUnitariasB.ApiRest.dto.EstadisticasCache;
+import com.pruebasUnitariasB.ApiRest.dto.EstadisticasEmpleados;
+import com.pruebasUnitariasB.ApiRest.dto.Pagina;
+import com.pruebasUnitariasB.ApiRest.dto.ResultadoActualizacion;
+import com.pruebasUnitariasB.ApiRest.dto.ResultadoLote;
 import com.pruebasUnitariasB.ApiRest.entity.Empleado;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EmpleadoService {
     Empleado guardarEmpleado(Empleado empleado);
     List<Empleado> getAllEmpleados();
+    List<EmpleadoResumen> getResumenEmpleados();
+    Pagina<EmpleadoResumen> buscarEmpleados(CampoBusqueda campo, String prefijo, String cursor, int limite);
+    Pagina<EmpleadoResumen> getEmpleadosPaginados(String cursor, int limite);
+    void streamEmpleados(Consumer<Empleado> consumidor);
     Optional<Empleado> getEmpleadoById(Long id);
     Empleado updateEmpleado(Empleado updateEmpleado);
-    void deleteEmpleado(Long id);
+    ResultadoActualizacion actualizarParcial(Long id, Empleado cambios, Long versionEsperada);
+    boolean deleteEmpleado(Long id);
+    List<ResultadoLote> guardarEmpleados(List<Empleado> empleados);
+    List<ResultadoLote> actualizarEmpleados(List<Empleado> empleados);
+    List<ResultadoLote> eliminarEmpleados(List<Long> ids);
+    EstadisticasCache getEstadisticasCache();
+    EstadisticasEmpleados getEstadisticas();
+    long getVersionColeccion();
 }
@@ -0,0 +1,54 @@
+package com.pruebasUnitariasB.ApiRest.service.Impl;
+
+import com.pruebasUnitariasB.ApiRest.entity.Empleado;
+import com.pruebasUnitariasB.ApiRest.exception.ResourceNotFoundException;
+import com.pruebasUnitariasB.ApiRest.repository.EmpleadoReactiveRepository;
+import com.pruebasUnitariasB.ApiRest.service.EmpleadoReactiveService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@Profile("reactive")
+public class EmpleadoReactiveServiceImpl implements EmpleadoReactiveService {
+
+    @Autowired
+    private EmpleadoReactiveRepository empleadoReactiveRepository;
+
+    @Override
+    public Mono<Empleado> guardarEmpleado(Empleado empleado) {
+        return empleadoReactiveRepository.findByEmail(empleado.getEmail())
+                .flatMap(existente -> Mono.<Empleado>error(emailDuplicado(empleado.getEmail())))
+                .switchIfEmpty(Mono.defer(() -> empleadoReactiveRepository.insert(empleado)))
+                .onErrorMap(DataIntegrityViolationException.class, e -> emailDuplicado(empleado.getEmail()));
+    }
+
+    @Override
+    public Flux<Empleado> getAllEmpleados() {
+        return empleadoReactiveRepository.findAll();
+    }
+
+    @Override
+    public Mono<Empleado> getEmpleadoById(Long id) {
+        return empleadoReactiveRepository.findById(id);
+    }
+
+    @Override
+    public Mono<Empleado> updateEmpleado(Empleado updateEmpleado) {
+        return empleadoReactiveRepository.update(updateEmpleado)
+                .onErrorMap(DataIntegrityViolationException.class, e -> emailDuplicado(updateEmpleado.getEmail()));
+    }
+
+    //false si no existia
+    @Override
+    public Mono<Boolean> deleteEmpleado(Long id) {
+        return empleadoReactiveRepository.deleteById(id).map(filas -> filas > 0);
+    }
+
+    private static ResourceNotFoundException emailDuplicado(String email) {
+        return new ResourceNotFoundException("El empleado con ese email ya existe: " + email);
+    }
+}
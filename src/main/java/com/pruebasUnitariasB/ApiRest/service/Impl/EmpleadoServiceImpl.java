@@ -1,47 +1,465 @@
 package com.pruebasUnitariasB.ApiRest.service.Impl;
 
+import com.pruebasUnitariasB.ApiRest.cache.EmpleadoCache;
+import com.pruebasUnitariasB.ApiRest.cache.IndiceEmails;
+import com.pruebasUnitariasB.ApiRest.cache.VersionColeccion;
+import com.pruebasUnitariasB.ApiRest.cambios.RegistroCambios;
+import com.pruebasUnitariasB.ApiRest.dto.CampoBusqueda;
+import com.pruebasUnitariasB.ApiRest.dto.CursorBusqueda;
+import com.pruebasUnitariasB.ApiRest.dto.EmailEmpleado;
+import com.pruebasUnitariasB.ApiRest.dto.EmpleadoResumen;
+import com.pruebasUnitariasB.ApiRest.dto.EstadisticasCache;
+import com.pruebasUnitariasB.ApiRest.dto.EstadisticasEmpleados;
+import com.pruebasUnitariasB.ApiRest.dto.Pagina;
+import com.pruebasUnitariasB.ApiRest.dto.ResultadoActualizacion;
+import com.pruebasUnitariasB.ApiRest.dto.ResultadoLote;
+import com.pruebasUnitariasB.ApiRest.entity.CambioEmpleado;
 import com.pruebasUnitariasB.ApiRest.entity.Empleado;
+import com.pruebasUnitariasB.ApiRest.estadisticas.ContadoresEmpleados;
 import com.pruebasUnitariasB.ApiRest.exception.ResourceNotFoundException;
+import com.pruebasUnitariasB.ApiRest.replica.LecturaReplica;
 import com.pruebasUnitariasB.ApiRest.repository.EmpleadoRepository;
 import com.pruebasUnitariasB.ApiRest.service.EmpleadoService;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed("empleados.servicio")
 public class EmpleadoServiceImpl implements EmpleadoService {
 
     @Autowired
     private EmpleadoRepository empleadoRepository;
+
+    @Autowired
+    private EmpleadoCache empleadoCache;
+
+    @Autowired
+    private IndiceEmails indiceEmails;
+
+    @Autowired
+    private VersionColeccion versionColeccion;
+
+    @Autowired
+    private RegistroCambios registroCambios;
+
+    @Autowired
+    private ContadoresEmpleados contadoresEmpleados;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${empleados.lote.tamanio:500}")
+    private int tamanioLote = 500;
+
+    @Value("${empleados.eliminacion.logica:false}")
+    private boolean eliminacionLogica;
+
     @Override
+    @Transactional
     public Empleado guardarEmpleado(Empleado empleado) {
-        Optional<Empleado> empleadoGuardado = empleadoRepository.findByEmail(empleado.getEmail());
-        if(empleadoGuardado.isPresent()){
-            throw new ResourceNotFoundException("El empleado con ese email ya existe: "+ empleado.getEmail());
+        if (!indiceEmails.esSeguroNuevo(empleado.getEmail())) {
+            Optional<Empleado> empleadoGuardado = empleadoRepository.findByEmail(empleado.getEmail());
+            if(empleadoGuardado.isPresent()){
+                throw emailDuplicado(empleado.getEmail());
+            }
         }
-        return empleadoRepository.save(empleado);
+        //Como en guardarEmpleados, el id y la version los asigna la base de datos: con un id enviado por el cliente
+        //save haria un merge sobre una fila existente
+        empleado.setId(null);
+        empleado.setVersion(null);
+        Empleado empleadoNuevo = guardarConEmailUnico(empleado);
+        registroCambios.registrar(CambioEmpleado.Tipo.CREADO, empleadoNuevo);
+        empleadoCache.actualizar(empleadoNuevo);
+        return empleadoNuevo;
     }
 
     @Override
+    @LecturaReplica
     public List<Empleado> getAllEmpleados() {
         return empleadoRepository.findAll();
     }
 
+    //Las transacciones de solo lectura dejan la sesion en FlushMode.MANUAL y sin snapshots de dirty checking
+    @Override
+    @Transactional(readOnly = true)
+    @LecturaReplica
+    public List<EmpleadoResumen> getResumenEmpleados() {
+        return empleadoRepository.findAllResumen();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @LecturaReplica
+    public Pagina<EmpleadoResumen> getEmpleadosPaginados(String cursor, int limite) {
+        Long desde = Pagina.decodificarCursor(cursor);
+        List<EmpleadoResumen> filas = empleadoRepository.findResumenDesdeId(desde, PageRequest.of(0, limite + 1));
+        if (filas.size() <= limite) {
+            return new Pagina<>(filas, null);
+        }
+        List<EmpleadoResumen> contenido = new ArrayList<>(filas.subList(0, limite));
+        Long ultimoId = contenido.get(contenido.size() - 1).getId();
+        return new Pagina<>(contenido, Pagina.codificarCursor(ultimoId));
+    }
+
     @Override
+    @Transactional(readOnly = true)
+    @LecturaReplica
+    public Pagina<EmpleadoResumen> buscarEmpleados(CampoBusqueda campo, String prefijo, String cursor, int limite) {
+        String desde = prefijo == null ? "" : prefijo.trim().toLowerCase(Locale.ROOT);
+        String hasta = siguientePrefijo(desde);
+        CursorBusqueda posicion = cursor == null || cursor.isBlank()
+                ? new CursorBusqueda(desde, 0L)
+                : CursorBusqueda.decodificar(cursor);
+        PageRequest pagina = PageRequest.of(0, limite + 1);
+        List<EmpleadoResumen> filas = switch (campo) {
+            case NOMBRE -> empleadoRepository.buscarPorNombre(desde, hasta, posicion.getValor(), posicion.getId(), pagina);
+            case APELLIDO -> empleadoRepository.buscarPorApellido(desde, hasta, posicion.getValor(), posicion.getId(), pagina);
+            case EMAIL -> empleadoRepository.buscarPorEmail(desde, hasta, posicion.getValor(), posicion.getId(), pagina);
+        };
+        if (filas.size() <= limite) {
+            return new Pagina<>(filas, null);
+        }
+        List<EmpleadoResumen> contenido = new ArrayList<>(filas.subList(0, limite));
+        EmpleadoResumen ultimo = contenido.get(contenido.size() - 1);
+        return new Pagina<>(contenido, new CursorBusqueda(campo.valorBusqueda(ultimo), ultimo.getId()).codificar());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamEmpleados(Consumer<Empleado> consumidor) {
+        try (Stream<Empleado> empleados = empleadoRepository.streamAll()) {
+            empleados.forEach(empleado -> {
+                consumidor.accept(empleado);
+                entityManager.detach(empleado);
+            });
+        }
+    }
+
+    @Override
+    @LecturaReplica
     public Optional<Empleado> getEmpleadoById(Long id) {
-        return empleadoRepository.findById(id);
+        return empleadoCache.obtener(id, empleadoRepository::findById);
     }
 
     @Override
+    @Transactional
     public Empleado updateEmpleado(Empleado updateEmpleado) {
-        return empleadoRepository.save(updateEmpleado);
+        //La fila queda en el contexto de persistencia y el merge de save la reutiliza sin otra consulta
+        String emailAnterior = empleadoRepository.findById(updateEmpleado.getId())
+                .map(Empleado::getEmail)
+                .orElse(null);
+        Empleado empleadoActualizado = guardarConEmailUnico(updateEmpleado);
+        registroCambios.registrarActualizacion(empleadoActualizado, emailAnterior);
+        empleadoCache.actualizar(empleadoActualizado);
+        return empleadoActualizado;
     }
 
     @Override
-    public void deleteEmpleado(Long id) {
-        empleadoRepository.deleteById(id);
+    @Transactional
+    public ResultadoActualizacion actualizarParcial(Long id, Empleado cambios, Long versionEsperada) {
+        //El email anterior solo hace falta para mover el empleado de dominio en las estadisticas
+        String emailAnterior = cambios.getEmail() != null
+                ? empleadoRepository.findEmailById(id).orElse(null)
+                : null;
+        int filas;
+        try {
+            filas = empleadoRepository.actualizarParcial(id, cambios.getNombre(), cambios.getApellido(),
+                    cambios.getEmail(), versionEsperada);
+        } catch (DataIntegrityViolationException e) {
+            if (esViolacionEmailUnico(e)) {
+                throw emailDuplicado(cambios.getEmail());
+            }
+            throw e;
+        }
+        empleadoCache.invalidar(id);
+        if (filas > 0) {
+            //Sin version esperada se lee la nueva dentro de la transaccion, con la fila aun bloqueada por el UPDATE
+            Long version = versionEsperada != null
+                    ? Long.valueOf(versionEsperada + 1)
+                    : empleadoRepository.findVersionById(id).orElse(null);
+            indiceEmails.registrar(cambios.getEmail());
+            versionColeccion.incrementar();
+            registroCambios.registrarParcial(id, cambios, version, emailAnterior);
+            return ResultadoActualizacion.actualizado(version);
+        }
+        return ResultadoActualizacion.error(empleadoRepository.existsById(id)
+                ? ResultadoActualizacion.Estado.CONFLICTO_VERSION
+                : ResultadoActualizacion.Estado.NO_ENCONTRADO);
+    }
+
+    //Un DELETE (o UPDATE con borrado logico) sin cargar antes el empleado, solo su email para el outbox;
+    //false si no existia
+    @Override
+    @Transactional
+    public boolean deleteEmpleado(Long id) {
+        List<EmailEmpleado> eliminados = empleadoRepository.findEmailsParaEliminar(List.of(id));
+        if (eliminados.isEmpty() || eliminar(List.of(id)) == 0) {
+            return false;
+        }
+        registroCambios.registrarEliminaciones(eliminados);
+        empleadoCache.invalidar(id);
+        versionColeccion.incrementar();
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public List<ResultadoLote> guardarEmpleados(List<Empleado> empleados) {
+        ResultadoLote[] resultados = new ResultadoLote[empleados.size()];
+        Set<String> emailsDelLote = new HashSet<>();
+        for (int inicio = 0; inicio < empleados.size(); inicio += tamanioLote) {
+            int fin = Math.min(inicio + tamanioLote, empleados.size());
+            Set<String> existentes = buscarEmailsExistentes(empleados.subList(inicio, fin).stream()
+                    .filter(Objects::nonNull)
+                    .map(Empleado::getEmail)
+                    .filter(email -> email != null && !indiceEmails.esSeguroNuevo(email))
+                    .collect(Collectors.toSet()));
+
+            List<Integer> indices = new ArrayList<>();
+            List<Empleado> nuevos = new ArrayList<>();
+            for (int i = inicio; i < fin; i++) {
+                Empleado empleado = empleados.get(i);
+                if (!esValido(empleado)) {
+                    resultados[i] = ResultadoLote.error(i, null, ResultadoLote.Estado.INVALIDO,
+                            "nombre, apellido y email son obligatorios");
+                } else if (existentes.contains(empleado.getEmail()) || !emailsDelLote.add(empleado.getEmail())) {
+                    resultados[i] = ResultadoLote.error(i, null, ResultadoLote.Estado.DUPLICADO,
+                            mensajeEmailDuplicado(empleado.getEmail()));
+                } else {
+                    empleado.setId(null);
+                    empleado.setVersion(null);
+                    indices.add(i);
+                    nuevos.add(empleado);
+                }
+            }
+
+            List<Empleado> guardados = empleadoRepository.saveAll(nuevos);
+            for (int j = 0; j < guardados.size(); j++) {
+                int indice = indices.get(j);
+                resultados[indice] = ResultadoLote.ok(indice, guardados.get(j).getId(), ResultadoLote.Estado.CREADO);
+            }
+            vaciarContexto();
+            registroCambios.registrarTodos(CambioEmpleado.Tipo.CREADO, guardados);
+            indiceEmails.registrarTodos(nuevos.stream().map(Empleado::getEmail).toList());
+            if (!guardados.isEmpty()) {
+                versionColeccion.incrementar();
+            }
+        }
+        return Arrays.asList(resultados);
+    }
+
+    //Como en el PUT individual, la version es opcional: si llega tiene que coincidir con la actual y si no se
+    //actualiza sin comprobarla. Un email ya usado en la tabla o reclamado por otro registro del lote es DUPLICADO,
+    //tambien cuando dos registros se intercambian el email, porque el indice unico lo rechazaria en el flush.
+    @Override
+    @Transactional
+    public List<ResultadoLote> actualizarEmpleados(List<Empleado> empleados) {
+        ResultadoLote[] resultados = new ResultadoLote[empleados.size()];
+        //Email -> id del empleado que se lo queda; el mismo empleado repetido en el lote puede conservarlo
+        Map<String, Long> emailsDelLote = new HashMap<>();
+        for (int inicio = 0; inicio < empleados.size(); inicio += tamanioLote) {
+            int fin = Math.min(inicio + tamanioLote, empleados.size());
+            List<Empleado> chunk = empleados.subList(inicio, fin).stream()
+                    .filter(EmpleadoServiceImpl::esValido)
+                    .toList();
+            Map<Long, Empleado> actuales = empleadoRepository.findAllById(chunk.stream()
+                            .map(Empleado::getId)
+                            .filter(Objects::nonNull)
+                            .collect(Collectors.toSet()))
+                    .stream()
+                    .collect(Collectors.toMap(Empleado::getId, Function.identity()));
+            Set<String> existentes = buscarEmailsExistentes(chunk.stream()
+                    .filter(empleado -> actuales.containsKey(empleado.getId()))
+                    .map(Empleado::getEmail)
+                    .collect(Collectors.toSet()));
+
+            List<Empleado> actualizados = new ArrayList<>();
+            List<String> emailsAnteriores = new ArrayList<>();
+            for (int i = inicio; i < fin; i++) {
+                Empleado cambios = empleados.get(i);
+                Empleado actual = esValido(cambios) ? actuales.get(cambios.getId()) : null;
+                if (!esValido(cambios)) {
+                    resultados[i] = ResultadoLote.error(i, cambios == null ? null : cambios.getId(),
+                            ResultadoLote.Estado.INVALIDO, "nombre, apellido y email son obligatorios");
+                } else if (actual == null) {
+                    resultados[i] = ResultadoLote.error(i, cambios.getId(), ResultadoLote.Estado.NO_ENCONTRADO,
+                            "No existe el empleado con id: " + cambios.getId());
+                } else if (cambios.getVersion() != null && !cambios.getVersion().equals(actual.getVersion())) {
+                    resultados[i] = ResultadoLote.error(i, cambios.getId(), ResultadoLote.Estado.CONFLICTO_VERSION,
+                            "La version enviada no coincide con la actual: " + actual.getVersion());
+                } else if (!reclamarEmail(actual, cambios.getEmail(), existentes, emailsDelLote)) {
+                    resultados[i] = ResultadoLote.error(i, cambios.getId(), ResultadoLote.Estado.DUPLICADO,
+                            mensajeEmailDuplicado(cambios.getEmail()));
+                } else {
+                    emailsAnteriores.add(actual.getEmail());
+                    actual.setNombre(cambios.getNombre());
+                    actual.setApellido(cambios.getApellido());
+                    actual.setEmail(cambios.getEmail());
+                    indiceEmails.registrar(cambios.getEmail());
+                    actualizados.add(actual);
+                    resultados[i] = ResultadoLote.ok(i, actual.getId(), ResultadoLote.Estado.ACTUALIZADO);
+                }
+            }
+            //Despues del flush los empleados ya tienen la version nueva
+            vaciarContexto();
+            List<CambioEmpleado> cambiosRegistrados = new ArrayList<>(actualizados.size());
+            for (int j = 0; j < actualizados.size(); j++) {
+                cambiosRegistrados.add(CambioEmpleado.actualizado(actualizados.get(j), emailsAnteriores.get(j)));
+            }
+            registroCambios.registrarCambios(cambiosRegistrados);
+            empleadoCache.invalidarTodos(actuales.keySet());
+            if (!actuales.isEmpty()) {
+                versionColeccion.incrementar();
+            }
+        }
+        return Arrays.asList(resultados);
+    }
+
+    @Override
+    @Transactional
+    public List<ResultadoLote> eliminarEmpleados(List<Long> ids) {
+        ResultadoLote[] resultados = new ResultadoLote[ids.size()];
+        for (int inicio = 0; inicio < ids.size(); inicio += tamanioLote) {
+            int fin = Math.min(inicio + tamanioLote, ids.size());
+            Set<Long> pendientes = ids.subList(inicio, fin).stream()
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            List<EmailEmpleado> eliminadosChunk = pendientes.isEmpty()
+                    ? List.of()
+                    : empleadoRepository.findEmailsParaEliminar(pendientes);
+            Set<Long> existentes = eliminadosChunk.stream().map(EmailEmpleado::getId).collect(Collectors.toSet());
+            if (!existentes.isEmpty()) {
+                eliminar(existentes);
+                registroCambios.registrarEliminaciones(eliminadosChunk);
+                empleadoCache.invalidarTodos(existentes);
+                versionColeccion.incrementar();
+            }
+
+            Set<Long> eliminados = new HashSet<>();
+            for (int i = inicio; i < fin; i++) {
+                Long id = ids.get(i);
+                if (id != null && existentes.contains(id) && eliminados.add(id)) {
+                    resultados[i] = ResultadoLote.ok(i, id, ResultadoLote.Estado.ELIMINADO);
+                } else {
+                    resultados[i] = ResultadoLote.error(i, id, ResultadoLote.Estado.NO_ENCONTRADO,
+                            "No existe el empleado con id: " + id);
+                }
+            }
+        }
+        return Arrays.asList(resultados);
+    }
+
+    @Override
+    public EstadisticasCache getEstadisticasCache() {
+        return empleadoCache.estadisticas();
+    }
+
+    @Override
+    public EstadisticasEmpleados getEstadisticas() {
+        return contadoresEmpleados.estadisticas();
+    }
+
+    @Override
+    public long getVersionColeccion() {
+        return versionColeccion.actual();
+    }
+
+    //Si otra peticion inserto el mismo email entre la comprobacion y el INSERT, el indice unico
+    //lo rechaza y se responde con el mismo error que la comprobacion previa.
+    private Empleado guardarConEmailUnico(Empleado empleado) {
+        Empleado guardado;
+        try {
+            guardado = empleadoRepository.save(empleado);
+            empleadoRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (esViolacionEmailUnico(e)) {
+                throw emailDuplicado(empleado.getEmail());
+            }
+            throw e;
+        }
+        indiceEmails.registrar(guardado.getEmail());
+        versionColeccion.incrementar();
+        return guardado;
+    }
+
+    //Reserva el email para el empleado dentro del lote; false si ya lo usa otra fila o lo reclamo otro registro
+    private static boolean reclamarEmail(Empleado actual, String email, Set<String> existentes,
+                                         Map<String, Long> emailsDelLote) {
+        if (!email.equals(actual.getEmail()) && existentes.contains(email)) {
+            return false;
+        }
+        Long reclamadoPor = emailsDelLote.putIfAbsent(email, actual.getId());
+        return reclamadoPor == null || reclamadoPor.equals(actual.getId());
+    }
+
+    private static boolean esViolacionEmailUnico(DataIntegrityViolationException e) {
+        String mensaje = e.getMostSpecificCause().getMessage();
+        return mensaje != null && mensaje.toLowerCase().contains(Empleado.INDICE_EMAIL);
+    }
+
+    private static ResourceNotFoundException emailDuplicado(String email) {
+        return new ResourceNotFoundException(mensajeEmailDuplicado(email));
+    }
+
+    private static String mensajeEmailDuplicado(String email) {
+        return "El empleado con ese email ya existe: " + email;
+    }
+
+    private Set<String> buscarEmailsExistentes(Set<String> emails) {
+        return emails.isEmpty() ? Set.of() : empleadoRepository.findEmailsExistentes(emails);
+    }
+
+    //Menor cadena mayor que todas las que empiezan por el prefijo: se incrementa el ultimo caracter
+    private static String siguientePrefijo(String prefijo) {
+        int fin = prefijo.length();
+        while (fin > 0 && prefijo.charAt(fin - 1) == Character.MAX_VALUE) {
+            fin--;
+        }
+        if (fin == 0) {
+            throw new IllegalArgumentException("El prefijo de busqueda no puede estar vacio");
+        }
+        return prefijo.substring(0, fin - 1) + (char) (prefijo.charAt(fin - 1) + 1);
+    }
+
+    private int eliminar(Collection<Long> ids) {
+        return eliminacionLogica
+                ? empleadoRepository.marcarEliminados(ids, Instant.now())
+                : empleadoRepository.eliminarPorIds(ids);
+    }
+
+    private void vaciarContexto() {
+        empleadoRepository.flush();
+        entityManager.clear();
+    }
 
+    private static boolean esValido(Empleado empleado) {
+        return empleado != null
+                && empleado.getNombre() != null
+                && empleado.getApellido() != null
+                && empleado.getEmail() != null;
     }
 }
@@ -0,0 +1,19 @@
+-- Esquema inicial de empleados, equivalente al mapeo de la entidad Empleado
+create sequence empleados_seq start with 1 increment by 50;
+
+create table empleados (
+    id bigint not null,
+    nombre varchar(255) not null,
+    apellido varchar(255) not null,
+    email varchar(255) not null,
+    version bigint,
+    nombre_busqueda varchar(255) generated always as (lower(nombre)),
+    apellido_busqueda varchar(255) generated always as (lower(apellido)),
+    email_busqueda varchar(255) generated always as (lower(email)),
+    primary key (id)
+);
+
+create unique index ux_empleados_email on empleados (email);
+create index ix_empleados_nombre_busqueda on empleados (nombre_busqueda, id);
+create index ix_empleados_apellido_busqueda on empleados (apellido_busqueda, id);
+create index ix_empleados_email_busqueda on empleados (email_busqueda, id);
@@ -0,0 +1,14 @@
+-- Outbox de cambios de empleados: una fila por alta, modificacion o baja, en orden de secuencia
+create sequence cambios_empleados_seq start with 1 increment by 50;
+
+create table cambios_empleados (
+    secuencia bigint not null,
+    empleado_id bigint not null,
+    tipo varchar(20) not null,
+    version bigint,
+    nombre varchar(255),
+    apellido varchar(255),
+    email varchar(255),
+    fecha timestamp(6) with time zone not null,
+    primary key (secuencia)
+);
@@ -0,0 +1,6 @@
+-- Borrado logico opcional: las filas con eliminado_en son lapidas que la purga borra despues por lotes.
+-- H2 no admite indices parciales (create index ... where eliminado_en is null); las lecturas filtran las
+-- lapidas, que son pocas, y este indice solo sirve a la purga para encontrarlas por fecha.
+alter table empleados add column eliminado_en timestamp(6) with time zone;
+
+create index ix_empleados_eliminado_en on empleados (eliminado_en);
@@ -0,0 +1,10 @@
+-- Orden global de los cambios para la coherencia de cache entre nodos. La secuencia del outbox se reserva por
+-- rangos en cada nodo; esta la asigna la base de datos en el propio INSERT, de uno en uno y sin rangos, asi que
+-- un hueco solo puede ser una transaccion aun abierta o deshecha.
+create sequence cambios_empleados_orden_seq start with 1 increment by 1;
+
+alter table cambios_empleados add column orden bigint default next value for cambios_empleados_orden_seq;
+update cambios_empleados set orden = next value for cambios_empleados_orden_seq where orden is null;
+alter table cambios_empleados alter column orden set not null;
+
+create unique index ux_cambios_empleados_orden on cambios_empleados (orden);
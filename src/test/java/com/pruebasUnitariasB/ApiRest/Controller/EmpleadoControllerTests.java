@@ -1,23 +1,48 @@
 package com.pruebasUnitariasB.ApiRest.Controller;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.pruebasUnitariasB.ApiRest.dto.CampoBusqueda;
+import com.pruebasUnitariasB.ApiRest.dto.EmpleadoResumen;
+import com.pruebasUnitariasB.ApiRest.dto.EstadisticasEmpleados;
+import com.pruebasUnitariasB.ApiRest.dto.Pagina;
+import com.pruebasUnitariasB.ApiRest.dto.ReporteImportacion;
+import com.pruebasUnitariasB.ApiRest.dto.ResultadoActualizacion;
+import com.pruebasUnitariasB.ApiRest.dto.ResultadoLote;
 import com.pruebasUnitariasB.ApiRest.entity.Empleado;
+import com.pruebasUnitariasB.ApiRest.importacion.FormatoImportacion;
+import com.pruebasUnitariasB.ApiRest.importacion.ImportadorEmpleados;
 import com.pruebasUnitariasB.ApiRest.service.EmpleadoService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import com.pruebasUnitariasB.ApiRest.cambios.SuscripcionesCambios;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
@@ -25,6 +50,8 @@ import static org.mockito.Mockito.*;
 import static  org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.hamcrest.CoreMatchers.is;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.StatusResultMatchers.*;
@@ -53,6 +80,12 @@ public class EmpleadoControllerTests {
     @MockBean
     private EmpleadoService empleadoService;
 
+    @MockBean
+    private SuscripcionesCambios suscripcionesCambios;
+
+    @MockBean
+    private ImportadorEmpleados importadorEmpleados;
+
     //ObjectMapper es una clase de Jackson que convierte objetos entre Java y formatos de datos como JSON.
     @Autowired
     private ObjectMapper objectMapper;
@@ -101,13 +134,13 @@ public class EmpleadoControllerTests {
     @Test
     void testListarEmpleados() throws Exception{
         //given
-        List<Empleado> empleadoList = new ArrayList<>();
-        empleadoList.add(Empleado.builder().nombre("Persona1").apellido("Apellido1").email("persona1@gmail.com").build());
-        empleadoList.add(Empleado.builder().nombre("Persona2").apellido("Apellido2").email("persona2@gmail.com").build());
-        empleadoList.add(Empleado.builder().nombre("Persona3").apellido("Apellido3").email("persona3@gmail.com").build());
-        empleadoList.add(Empleado.builder().nombre("Persona4").apellido("Apellido4").email("persona4@gmail.com").build());
-        empleadoList.add(Empleado.builder().nombre("Persona5").apellido("Apellido5").email("persona5@gmail.com").build());
-        given(empleadoService.getAllEmpleados()).willReturn(empleadoList);
+        List<EmpleadoResumen> empleadoList = new ArrayList<>();
+        empleadoList.add(new EmpleadoResumen(1L, "Persona1", "Apellido1", "persona1@gmail.com", 0L));
+        empleadoList.add(new EmpleadoResumen(2L, "Persona2", "Apellido2", "persona2@gmail.com", 0L));
+        empleadoList.add(new EmpleadoResumen(3L, "Persona3", "Apellido3", "persona3@gmail.com", 0L));
+        empleadoList.add(new EmpleadoResumen(4L, "Persona4", "Apellido4", "persona4@gmail.com", 0L));
+        empleadoList.add(new EmpleadoResumen(5L, "Persona5", "Apellido5", "persona5@gmail.com", 0L));
+        given(empleadoService.getResumenEmpleados()).willReturn(empleadoList);
 
         //when
         ResultActions resultActions = mockMvc.perform(get("/api/empleados"));
@@ -235,7 +268,7 @@ public class EmpleadoControllerTests {
     void testEliminarEmpleado() throws Exception{
         //given
         long empleadoId = 1L;
-        willDoNothing().given(empleadoService).deleteEmpleado(empleadoId);
+        given(empleadoService.deleteEmpleado(empleadoId)).willReturn(true);
 
         //when
         ResultActions resultActions = mockMvc.perform(delete("/api/empleados/{id}", empleadoId));
@@ -245,4 +278,463 @@ public class EmpleadoControllerTests {
                 .andDo(print());
     }
 
+    @Test
+    void testEliminarEmpleadoInexistente() throws Exception{
+        //given
+        given(empleadoService.deleteEmpleado(99L)).willReturn(false);
+
+        //when
+        ResultActions resultActions = mockMvc.perform(delete("/api/empleados/{id}", 99L));
+
+        //then
+        resultActions.andExpect(status().isNotFound())
+                .andDo(print());
+    }
+
+    @Test
+    void testListarEmpleadosPaginados() throws Exception{
+        //given
+        List<EmpleadoResumen> empleadoList = new ArrayList<>();
+        empleadoList.add(new EmpleadoResumen(1L, "Persona1", "Apellido1", "persona1@gmail.com", 0L));
+        empleadoList.add(new EmpleadoResumen(2L, "Persona2", "Apellido2", "persona2@gmail.com", 0L));
+        String siguienteCursor = Pagina.codificarCursor(2L);
+        given(empleadoService.getEmpleadosPaginados(null, 2)).willReturn(new Pagina<>(empleadoList, siguienteCursor));
+
+        //when
+        ResultActions resultActions = mockMvc.perform(get("/api/empleados/pagina").param("limite", "2"));
+
+        //then
+        resultActions.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.contenido.size()", is(empleadoList.size())))
+                .andExpect(jsonPath("$.siguienteCursor", is(siguienteCursor)));
+    }
+
+    @Test
+    void testListarEmpleadosPaginadosCursorInvalido() throws Exception{
+        //given
+        given(empleadoService.getEmpleadosPaginados("no-es-un-cursor", 50))
+                .willThrow(new IllegalArgumentException("Cursor invalido: no-es-un-cursor"));
+
+        //when
+        ResultActions resultActions = mockMvc.perform(get("/api/empleados/pagina").param("cursor", "no-es-un-cursor"));
+
+        //then
+        resultActions.andExpect(status().isBadRequest())
+                .andDo(print());
+    }
+
+    @Test
+    void testStreamEmpleadosNdjson() throws Exception{
+        //given
+        //Cada empleado que el servicio entrega al consumidor se escribe como una linea JSON independiente
+        Empleado empleado1 = Empleado.builder().id(1L).nombre("Persona1").apellido("Apellido1").email("persona1@gmail.com").build();
+        Empleado empleado2 = Empleado.builder().id(2L).nombre("Persona2").apellido("Apellido2").email("persona2@gmail.com").build();
+        willAnswer(invocation -> {
+            Consumer<Empleado> consumidor = invocation.getArgument(0);
+            consumidor.accept(empleado1);
+            consumidor.accept(empleado2);
+            return null;
+        }).given(empleadoService).streamEmpleados(any());
+
+        //when
+        ResultActions resultActions = mockMvc.perform(get("/api/empleados/stream"));
+
+        //then
+        String esperado = objectMapper.writeValueAsString(empleado1) + "\n" + objectMapper.writeValueAsString(empleado2) + "\n";
+        resultActions.andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(content().string(esperado));
+    }
+
+    @Test
+    void testGuardarEmpleadosEnLote() throws Exception{
+        //given
+        List<Empleado> empleadoList = new ArrayList<>();
+        empleadoList.add(Empleado.builder().nombre("Persona1").apellido("Apellido1").email("persona1@gmail.com").build());
+        empleadoList.add(Empleado.builder().nombre("Persona2").apellido("Apellido2").email("persona1@gmail.com").build());
+        given(empleadoService.guardarEmpleados(any())).willReturn(List.of(
+                ResultadoLote.ok(0, 1L, ResultadoLote.Estado.CREADO),
+                ResultadoLote.error(1, null, ResultadoLote.Estado.DUPLICADO, "El empleado con ese email ya existe: persona1@gmail.com")));
+
+        //when
+        ResultActions resultActions = mockMvc.perform(post("/api/empleados/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(empleadoList)));
+
+        //then
+        resultActions.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].estado", is("CREADO")))
+                .andExpect(jsonPath("$[1].estado", is("DUPLICADO")));
+    }
+
+    @Test
+    void testObtenerEmpleadoConEtag() throws Exception{
+        //given
+        //La version del empleado se expone como ETag para poder enviarla luego en If-Match
+        Empleado empleado = Empleado.builder().id(1L).nombre("Gabriel").apellido("Rodriguez").email("gabriel@gmail.com").version(3L).build();
+        given(empleadoService.getEmpleadoById(1L)).willReturn(Optional.of(empleado));
+
+        //when
+        ResultActions resultActions = mockMvc.perform(get("/api/empleados/{id}", 1L));
+
+        //then
+        resultActions.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+    }
+
+    @Test
+    void testActualizarParcialEmpleado() throws Exception{
+        //given
+        Empleado cambios = Empleado.builder().nombre("Nuevo").build();
+        given(empleadoService.actualizarParcial(eq(1L), any(Empleado.class), eq(3L)))
+                .willReturn(ResultadoActualizacion.actualizado(4L));
+
+        //when
+        ResultActions resultActions = mockMvc.perform(patch("/api/empleados/{id}", 1L)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(cambios)));
+
+        //then
+        //No se devuelve el cuerpo, solo el nuevo ETag resultante de incrementar la version
+        resultActions.andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    @Test
+    void testActualizarParcialEmpleadoSinIfMatch() throws Exception{
+        //given
+        Empleado cambios = Empleado.builder().nombre("Nuevo").build();
+        given(empleadoService.actualizarParcial(eq(1L), any(Empleado.class), isNull()))
+                .willReturn(ResultadoActualizacion.actualizado(7L));
+
+        //when
+        ResultActions resultActions = mockMvc.perform(patch("/api/empleados/{id}", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(cambios)));
+
+        //then
+        //Sin If-Match tambien se devuelve el ETag de la version nueva
+        resultActions.andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7\""));
+    }
+
+    @Test
+    void testActualizarParcialEmpleadoConflictoVersion() throws Exception{
+        //given
+        Empleado cambios = Empleado.builder().nombre("Nuevo").build();
+        given(empleadoService.actualizarParcial(eq(1L), any(Empleado.class), eq(2L)))
+                .willReturn(ResultadoActualizacion.error(ResultadoActualizacion.Estado.CONFLICTO_VERSION));
+
+        //when
+        ResultActions resultActions = mockMvc.perform(patch("/api/empleados/{id}", 1L)
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(cambios)));
+
+        //then
+        resultActions.andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void testActualizarParcialEmpleadoNoEncontrado() throws Exception{
+        //given
+        Empleado cambios = Empleado.builder().nombre("Nuevo").build();
+        given(empleadoService.actualizarParcial(eq(1L), any(Empleado.class), isNull()))
+                .willReturn(ResultadoActualizacion.error(ResultadoActualizacion.Estado.NO_ENCONTRADO));
+
+        //when
+        ResultActions resultActions = mockMvc.perform(patch("/api/empleados/{id}", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(cambios)));
+
+        //then
+        resultActions.andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testActualizarEmpleadoIfMatchObsoleto() throws Exception{
+        //given
+        //La version de If-Match se guarda tal cual y es la base de datos la que la rechaza
+        Empleado empleadoGuardado = Empleado.builder().id(1L).nombre("Gabriel").apellido("Rodriguez").email("gabriel@gmail.com").version(5L).build();
+        Empleado empleadoActualizado = Empleado.builder().nombre("Nuevo").apellido("Apellido").email("nuevo@gmail.com").build();
+        given(empleadoService.getEmpleadoById(1L)).willReturn(Optional.of(empleadoGuardado));
+        given(empleadoService.updateEmpleado(argThat(empleado -> empleado.getVersion() == 4L)))
+                .willThrow(new ObjectOptimisticLockingFailureException(Empleado.class, 1L));
+
+        //when
+        ResultActions resultActions = mockMvc.perform(put("/api/empleados/{id}", 1L)
+                .header(HttpHeaders.IF_MATCH, "\"4\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(empleadoActualizado)));
+
+        //then
+        resultActions.andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void testActualizarEmpleadoIfMatchConCacheAtrasada() throws Exception{
+        //given
+        //La cache aun tiene la version 5 pero el cliente ya leyo la 6 de la base de datos
+        Empleado empleadoGuardado = Empleado.builder().id(1L).nombre("Gabriel").apellido("Rodriguez").email("gabriel@gmail.com").version(5L).build();
+        Empleado empleadoActualizado = Empleado.builder().nombre("Nuevo").apellido("Apellido").email("nuevo@gmail.com").build();
+        given(empleadoService.getEmpleadoById(1L)).willReturn(Optional.of(empleadoGuardado));
+        given(empleadoService.updateEmpleado(argThat(empleado -> empleado.getVersion() == 6L)))
+                .willAnswer(invocation -> ((Empleado) invocation.getArgument(0)).toBuilder().version(7L).build());
+
+        //when
+        ResultActions resultActions = mockMvc.perform(put("/api/empleados/{id}", 1L)
+                .header(HttpHeaders.IF_MATCH, "\"6\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(empleadoActualizado)));
+
+        //then
+        resultActions.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7\""));
+    }
+
+    @Test
+    void testListarEmpleadosNoModificados() throws Exception{
+        //given
+        //Si el cliente ya tiene el ETag de la version actual del listado no se consulta la base de datos
+        given(empleadoService.getVersionColeccion()).willReturn(42L);
+
+        //when
+        ResultActions resultActions = mockMvc.perform(get("/api/empleados").header(HttpHeaders.IF_NONE_MATCH, "\"c42\""));
+
+        //then
+        resultActions.andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(empleadoService, never()).getResumenEmpleados();
+    }
+
+    @Test
+    void testListarEmpleadosConEtagObsoleto() throws Exception{
+        //given
+        given(empleadoService.getVersionColeccion()).willReturn(43L);
+        given(empleadoService.getResumenEmpleados()).willReturn(List.of(
+                new EmpleadoResumen(1L, "Persona1", "Apellido1", "persona1@gmail.com", 0L)));
+
+        //when
+        ResultActions resultActions = mockMvc.perform(get("/api/empleados").header(HttpHeaders.IF_NONE_MATCH, "\"c42\""));
+
+        //then
+        resultActions.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"c43\""))
+                .andExpect(jsonPath("$.size()", is(1)));
+    }
+
+    @Test
+    void testObtenerEmpleadoNoModificado() throws Exception{
+        //given
+        Empleado empleado = Empleado.builder().id(1L).nombre("Gabriel").apellido("Rodriguez").email("gabriel@gmail.com").version(3L).build();
+        given(empleadoService.getEmpleadoById(1L)).willReturn(Optional.of(empleado));
+
+        //when
+        ResultActions resultActions = mockMvc.perform(get("/api/empleados/{id}", 1L).header(HttpHeaders.IF_NONE_MATCH, "\"3\""));
+
+        //then
+        resultActions.andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testBuscarEmpleados() throws Exception{
+        //given
+        EmpleadoResumen empleado = new EmpleadoResumen(1L, "Gabriel", "Rodriguez", "gabriel@gmail.com", 0L);
+        given(empleadoService.buscarEmpleados(CampoBusqueda.APELLIDO, "rod", null, 50))
+                .willReturn(new Pagina<>(List.of(empleado), null));
+
+        //when
+        ResultActions resultActions = mockMvc.perform(get("/api/empleados/buscar")
+                .param("campo", "apellido")
+                .param("prefijo", "rod"));
+
+        //then
+        resultActions.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.contenido.size()", is(1)))
+                .andExpect(jsonPath("$.contenido[0].apellido", is("Rodriguez")));
+    }
+
+    @Test
+    void testBuscarEmpleadosCampoInvalido() throws Exception{
+        //when
+        ResultActions resultActions = mockMvc.perform(get("/api/empleados/buscar")
+                .param("campo", "telefono")
+                .param("prefijo", "rod"));
+
+        //then
+        resultActions.andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testListarEmpleadosConCampos() throws Exception{
+        //given
+        //Con fields= solo se devuelven las columnas pedidas, en el orden pedido
+        given(empleadoService.getResumenEmpleados()).willReturn(List.of(
+                new EmpleadoResumen(1L, "Persona1", "Apellido1", "persona1@gmail.com", 0L)));
+
+        //when
+        ResultActions resultActions = mockMvc.perform(get("/api/empleados").param("fields", "id,email"));
+
+        //then
+        resultActions.andExpect(status().isOk())
+                .andExpect(content().json("[{\"id\":1,\"email\":\"persona1@gmail.com\"}]", true));
+    }
+
+    @Test
+    void testListarEmpleadosCampoInvalido() throws Exception{
+        //when
+        ResultActions resultActions = mockMvc.perform(get("/api/empleados").param("fields", "id,salario"));
+
+        //then
+        resultActions.andExpect(status().isBadRequest());
+        verify(empleadoService, never()).getResumenEmpleados();
+    }
+
+    @Test
+    void testImportarEmpleadosCsv() throws Exception{
+        //given
+        //Cada reporte del importador sale como una linea NDJSON
+        MockMultipartFile archivo = new MockMultipartFile("archivo", "empleados.csv", "text/csv",
+                "nombre,apellido,email\nAna,Perez,ana@gmail.com\n".getBytes());
+        willAnswer(invocation -> {
+            Consumer<ReporteImportacion> reporte = invocation.getArgument(2);
+            reporte.accept(ReporteImportacion.resumen(1, 1, 0));
+            return null;
+        }).given(importadorEmpleados).importar(any(), eq(FormatoImportacion.CSV), any());
+
+        //when
+        ResultActions resultActions = mockMvc.perform(multipart("/api/empleados/importar").file(archivo));
+
+        //then
+        resultActions.andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(content().string("{\"tipo\":\"RESUMEN\",\"lineas\":1,\"creados\":1,\"errores\":0}\n"));
+    }
+
+    @Test
+    void testImportarEmpleadosFormatoNoSoportado() throws Exception{
+        //given
+        MockMultipartFile archivo = new MockMultipartFile("archivo", "empleados.xlsx",
+                MediaType.APPLICATION_OCTET_STREAM_VALUE, new byte[]{1, 2, 3});
+
+        //when
+        ResultActions resultActions = mockMvc.perform(multipart("/api/empleados/importar").file(archivo));
+
+        //then
+        resultActions.andExpect(status().isBadRequest());
+        verifyNoInteractions(importadorEmpleados);
+    }
+
+    @Test
+    void testListarEmpleadosEnCbor() throws Exception{
+        //given
+        List<EmpleadoResumen> empleadoList = List.of(
+                new EmpleadoResumen(1L, "Persona1", "Apellido1", "persona1@gmail.com", 0L),
+                new EmpleadoResumen(2L, "Persona2", "Apellido2", "persona2@gmail.com", 3L));
+        given(empleadoService.getResumenEmpleados()).willReturn(empleadoList);
+
+        //when
+        MvcResult resultado = mockMvc.perform(get("/api/empleados").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn();
+
+        //then
+        byte[] cuerpo = resultado.getResponse().getContentAsByteArray();
+        JsonNode empleados = new CBORMapper().readTree(cuerpo);
+        assertThat(empleados).hasSize(2);
+        assertThat(empleados.get(1).get("email").asText()).isEqualTo("persona2@gmail.com");
+        assertThat(empleados.get(1).get("version").asLong()).isEqualTo(3L);
+        assertThat(cuerpo.length).isLessThan(objectMapper.writeValueAsBytes(empleadoList).length);
+    }
+
+    @Test
+    void testListarEmpleadosEnSmile() throws Exception{
+        //given
+        given(empleadoService.getResumenEmpleados()).willReturn(List.of(
+                new EmpleadoResumen(1L, "Persona1", "Apellido1", "persona1@gmail.com", 0L)));
+
+        //when
+        MvcResult resultado = mockMvc.perform(get("/api/empleados").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        //then
+        JsonNode empleados = new SmileMapper().readTree(resultado.getResponse().getContentAsByteArray());
+        assertThat(empleados.get(0).get("nombre").asText()).isEqualTo("Persona1");
+    }
+
+    @Test
+    void testObtenerEstadisticas() throws Exception{
+        //given
+        given(empleadoService.getEstadisticas()).willReturn(new EstadisticasEmpleados(3, Map.of("gmail.com", 2L, "empresa.pe", 1L),
+                2, 1, Duration.ofHours(1), Instant.parse("2024-01-01T00:00:00Z")));
+
+        //when
+        ResultActions resultActions = mockMvc.perform(get("/api/empleados/estadisticas"));
+
+        //then
+        resultActions.andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(3)))
+                .andExpect(jsonPath("$.porDominio['gmail.com']", is(2)))
+                .andExpect(jsonPath("$.creadosRecientes", is(2)))
+                .andExpect(jsonPath("$.eliminadosRecientes", is(1)))
+                .andExpect(jsonPath("$.ventanaRecientes", is("PT1H")));
+    }
+
+    @Test
+    void testExportarEmpleadosCsv() throws Exception{
+        //given
+        //Los valores con comas o comillas se escriben entre comillas dobles
+        Empleado empleado1 = Empleado.builder().id(1L).nombre("Ana").apellido("Perez").email("ana@gmail.com").version(0L).build();
+        Empleado empleado2 = Empleado.builder().id(2L).nombre("Luis, Jr").apellido("Gomez \"El\"").email("luis@gmail.com").version(3L).build();
+        willAnswer(invocation -> {
+            Consumer<Empleado> consumidor = invocation.getArgument(0);
+            consumidor.accept(empleado1);
+            consumidor.accept(empleado2);
+            return null;
+        }).given(empleadoService).streamEmpleados(any());
+
+        //when
+        ResultActions resultActions = mockMvc.perform(get("/api/empleados/exportar").param("formato", "csv"));
+
+        //then
+        resultActions.andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"empleados.csv\""))
+                .andExpect(content().string("id,nombre,apellido,email,version\n" +
+                        "1,Ana,Perez,ana@gmail.com,0\n" +
+                        "2,\"Luis, Jr\",\"Gomez \"\"El\"\"\",luis@gmail.com,3\n"));
+    }
+
+    @Test
+    void testExportarEmpleadosNdjsonGzip() throws Exception{
+        //given
+        Empleado empleado = Empleado.builder().id(1L).nombre("Ana").apellido("Perez").email("ana@gmail.com").build();
+        willAnswer(invocation -> {
+            Consumer<Empleado> consumidor = invocation.getArgument(0);
+            consumidor.accept(empleado);
+            return null;
+        }).given(empleadoService).streamEmpleados(any());
+
+        //when
+        MvcResult resultado = mockMvc.perform(get("/api/empleados/exportar").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+
+        //then
+        //Al descomprimir el cuerpo queda el mismo NDJSON que devuelve /stream
+        try (GZIPInputStream descomprimido = new GZIPInputStream(
+                new ByteArrayInputStream(resultado.getResponse().getContentAsByteArray()))) {
+            String ndjson = new String(descomprimido.readAllBytes(), StandardCharsets.UTF_8);
+            assertThat(ndjson).isEqualTo(objectMapper.writeValueAsString(empleado) + "\n");
+        }
+    }
 }
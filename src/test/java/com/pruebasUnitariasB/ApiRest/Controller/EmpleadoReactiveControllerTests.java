@@ -0,0 +1,227 @@
+package com.pruebasUnitariasB.ApiRest.Controller;
+
+import com.pruebasUnitariasB.ApiRest.controller.EmpleadoReactiveController;
+import com.pruebasUnitariasB.ApiRest.entity.Empleado;
+import com.pruebasUnitariasB.ApiRest.service.EmpleadoReactiveService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+//Repite los escenarios de EmpleadoControllerTests contra la variante reactiva (WebFlux) del mismo contrato.
+//@WebFluxTest levanta solo la capa web reactiva y WebTestClient cumple el papel que MockMvc tiene en los tests MVC.
+@WebFluxTest(controllers = EmpleadoReactiveController.class)
+@ActiveProfiles("reactive")
+public class EmpleadoReactiveControllerTests {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private EmpleadoReactiveService empleadoReactiveService;
+
+    @Test
+    void testGuardarEmpleado() {
+        //given
+        Empleado empleado = Empleado.builder()
+                .id(1L)
+                .nombre("Andrea")
+                .apellido("Ramirez")
+                .email("andrea@gmail.com")
+                .build();
+        given(empleadoReactiveService.guardarEmpleado(any(Empleado.class)))
+                .willAnswer((invocation) -> Mono.just(invocation.getArgument(0)));
+
+        //when - then
+        webTestClient.post().uri("/api/empleados")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(empleado)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.nombre").isEqualTo(empleado.getNombre())
+                .jsonPath("$.apellido").isEqualTo(empleado.getApellido())
+                .jsonPath("$.email").isEqualTo(empleado.getEmail());
+    }
+
+    @Test
+    void testListarEmpleados() {
+        //given
+        List<Empleado> empleadoList = new ArrayList<>();
+        empleadoList.add(Empleado.builder().nombre("Persona1").apellido("Apellido1").email("persona1@gmail.com").build());
+        empleadoList.add(Empleado.builder().nombre("Persona2").apellido("Apellido2").email("persona2@gmail.com").build());
+        empleadoList.add(Empleado.builder().nombre("Persona3").apellido("Apellido3").email("persona3@gmail.com").build());
+        given(empleadoReactiveService.getAllEmpleados()).willReturn(Flux.fromIterable(empleadoList));
+
+        //when - then
+        webTestClient.get().uri("/api/empleados")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.size()").isEqualTo(empleadoList.size());
+    }
+
+    @Test
+    void testListarEmpleadosNdjson() {
+        //given
+        //Con application/x-ndjson el Flux se escribe elemento a elemento respetando la contrapresion
+        given(empleadoReactiveService.getAllEmpleados()).willReturn(Flux.just(
+                Empleado.builder().nombre("Persona1").apellido("Apellido1").email("persona1@gmail.com").build(),
+                Empleado.builder().nombre("Persona2").apellido("Apellido2").email("persona2@gmail.com").build()));
+
+        //when - then
+        webTestClient.get().uri("/api/empleados")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Empleado.class).hasSize(2);
+    }
+
+    @Test
+    void testObtenerEmpleadoPorId() {
+        //given
+        long empleadoId = 1L;
+        Empleado empleado = Empleado.builder()
+                .nombre("Andrea")
+                .apellido("Ramirez")
+                .email("andrea@gmail.com")
+                .build();
+        given(empleadoReactiveService.getEmpleadoById(empleadoId)).willReturn(Mono.just(empleado));
+
+        //when - then
+        webTestClient.get().uri("/api/empleados/{id}", empleadoId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.nombre").isEqualTo(empleado.getNombre())
+                .jsonPath("$.apellido").isEqualTo(empleado.getApellido())
+                .jsonPath("$.email").isEqualTo(empleado.getEmail());
+    }
+
+    @Test
+    void testObtenerEmpleadoNoEncontrado() {
+        //given
+        long empleadoId = 1L;
+        given(empleadoReactiveService.getEmpleadoById(empleadoId)).willReturn(Mono.empty());
+
+        //when - then
+        webTestClient.get().uri("/api/empleados/{id}", empleadoId)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testActualizarEmpleado() {
+        //given
+        long empleadoId = 1L;
+        Empleado empleadoGuardado = Empleado.builder()
+                .nombre("Andrea")
+                .apellido("Ramirez")
+                .email("andrea@gmail.com")
+                .build();
+
+        Empleado empleadoActualizado = Empleado.builder()
+                .nombre("Flor")
+                .apellido("Perez")
+                .email("flor@gmail.com")
+                .build();
+        given(empleadoReactiveService.getEmpleadoById(empleadoId)).willReturn(Mono.just(empleadoGuardado));
+        given(empleadoReactiveService.updateEmpleado(any(Empleado.class)))
+                .willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        //when - then
+        webTestClient.put().uri("/api/empleados/{id}", empleadoId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(empleadoActualizado)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.nombre").isEqualTo(empleadoActualizado.getNombre())
+                .jsonPath("$.apellido").isEqualTo(empleadoActualizado.getApellido())
+                .jsonPath("$.email").isEqualTo(empleadoActualizado.getEmail());
+    }
+
+    @Test
+    void testActualizarEmpleadoNoEncontrado() {
+        //given
+        long empleadoId = 1L;
+        Empleado empleadoActualizado = Empleado.builder()
+                .nombre("Flor")
+                .apellido("Perez")
+                .email("flor@gmail.com")
+                .build();
+        given(empleadoReactiveService.getEmpleadoById(empleadoId)).willReturn(Mono.empty());
+
+        //when - then
+        webTestClient.put().uri("/api/empleados/{id}", empleadoId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(empleadoActualizado)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testActualizarEmpleadoConflicto() {
+        //given
+        long empleadoId = 1L;
+        Empleado empleadoGuardado = Empleado.builder()
+                .id(empleadoId)
+                .nombre("Andrea")
+                .apellido("Ramirez")
+                .email("andrea@gmail.com")
+                .version(3L)
+                .build();
+
+        Empleado empleadoActualizado = Empleado.builder()
+                .nombre("Flor")
+                .apellido("Perez")
+                .email("flor@gmail.com")
+                .build();
+        given(empleadoReactiveService.getEmpleadoById(empleadoId)).willReturn(Mono.just(empleadoGuardado));
+        given(empleadoReactiveService.updateEmpleado(any(Empleado.class))).willReturn(Mono.empty());
+
+        //when - then
+        webTestClient.put().uri("/api/empleados/{id}", empleadoId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(empleadoActualizado)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void testEliminarEmpleado() {
+        //given
+        long empleadoId = 1L;
+        given(empleadoReactiveService.deleteEmpleado(empleadoId)).willReturn(Mono.just(true));
+
+        //when - then
+        webTestClient.delete().uri("/api/empleados/{id}", empleadoId)
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void testEliminarEmpleadoNoEncontrado() {
+        //given
+        long empleadoId = 1L;
+        given(empleadoReactiveService.deleteEmpleado(empleadoId)).willReturn(Mono.just(false));
+
+        //when - then
+        webTestClient.delete().uri("/api/empleados/{id}", empleadoId)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
@@ -1,13 +1,184 @@
 package com.pruebasUnitariasB.ApiRest;
 
+import com.pruebasUnitariasB.ApiRest.estadisticas.ContadoresEmpleados;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
-@SpringBootTest
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//La admision viene desactivada por defecto; aqui se activa y se confia en X-Cliente-Id para simular varios clientes
+@SpringBootTest(properties = {
+		"empleados.admision.enabled=true",
+		"empleados.admision.confiar-cabecera-cliente=true"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
 class PruebasUnitariasBApplicationTests {
 
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private ContadoresEmpleados contadoresEmpleados;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
 	@Test
 	void contextLoads() {
 	}
 
+	//Recorre el endpoint de Prometheus despues de usar la API y comprueba que estan todas las familias de metricas
+	@Test
+	void testMetricasPrometheus() throws Exception {
+		mockMvc.perform(post("/api/empleados")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"nombre\":\"Andrea\",\"apellido\":\"Ramirez\",\"email\":\"metricas@gmail.com\"}"))
+				.andExpect(status().isCreated());
+		mockMvc.perform(get("/api/empleados")).andExpect(status().isOk());
+
+		mockMvc.perform(get("/actuator/prometheus"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("empleados_servicio_seconds_bucket")))
+				.andExpect(content().string(containsString("empleados_consultas_por_peticion_consultas_count{method=\"GET\",uri=\"/api/empleados\"")))
+				.andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+				.andExpect(content().string(containsString("hibernate_query_executions_total")))
+				.andExpect(content().string(containsString("hikaricp_connections_active")))
+				.andExpect(content().string(containsString("cache_gets_total{cache=\"empleados\"")))
+				.andExpect(content().string(containsString("empleados_admision_en_curso")));
+	}
+
+	//El listado completo es un endpoint pesado: tras la rafaga el mismo cliente recibe 429, otro cliente no
+	@Test
+	void testLimiteDePeticionesPorCliente() throws Exception {
+		MvcResult rechazada = null;
+		for (int i = 0; i < 20 && rechazada == null; i++) {
+			MvcResult resultado = mockMvc.perform(get("/api/empleados").header("X-Cliente-Id", "cliente-limitado")).andReturn();
+			if (resultado.getResponse().getStatus() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+				rechazada = resultado;
+			}
+		}
+
+		assertThat(rechazada).isNotNull();
+		assertThat(rechazada.getResponse().getHeader(HttpHeaders.RETRY_AFTER)).isNotBlank();
+		mockMvc.perform(get("/api/empleados").header("X-Cliente-Id", "otro-cliente")).andExpect(status().isOk());
+	}
+
+	//Un consumidor en long-poll desde el ultimo orden recibe el alta en cuanto se confirma
+	@Test
+	void testLongPollDeCambios() throws Exception {
+		MvcResult lectura = mockMvc.perform(get("/api/empleados/cambios")
+						.accept(MediaType.APPLICATION_JSON)
+						.param("desde", "0")
+						.param("limite", "500"))
+				.andReturn();
+		String ultimos = mockMvc.perform(asyncDispatch(lectura))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		long desde = objectMapper.readTree(ultimos).findValues("orden").stream()
+				.mapToLong(JsonNode::asLong).max().orElse(0);
+		MvcResult espera = mockMvc.perform(get("/api/empleados/cambios")
+						.accept(MediaType.APPLICATION_JSON)
+						.param("desde", String.valueOf(desde))
+						.param("espera", "PT10S"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		mockMvc.perform(post("/api/empleados")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"nombre\":\"Lucia\",\"apellido\":\"Campos\",\"email\":\"cambios@gmail.com\"}"))
+				.andExpect(status().isCreated());
+
+		mockMvc.perform(asyncDispatch(espera))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].tipo").value("CREADO"))
+				.andExpect(jsonPath("$[0].email").value("cambios@gmail.com"));
+	}
+
+	//El alta se cuenta al confirmarse y la reconciliacion contra la tabla deja los mismos valores
+	@Test
+	void testEstadisticasIncrementales() throws Exception {
+		contadoresEmpleados.reconciliar();
+		JsonNode antes = objectMapper.readTree(mockMvc.perform(get("/api/empleados/estadisticas"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString());
+
+		mockMvc.perform(post("/api/empleados")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"nombre\":\"Sara\",\"apellido\":\"Ortiz\",\"email\":\"sara@Estadisticas.Test\"}"))
+				.andExpect(status().isCreated());
+		JsonNode despues = objectMapper.readTree(mockMvc.perform(get("/api/empleados/estadisticas"))
+				.andReturn().getResponse().getContentAsString());
+		contadoresEmpleados.reconciliar();
+		JsonNode reconciliadas = objectMapper.readTree(mockMvc.perform(get("/api/empleados/estadisticas"))
+				.andReturn().getResponse().getContentAsString());
+
+		assertThat(antes.path("porDominio").has("estadisticas.test")).isFalse();
+		assertThat(despues.get("total").asLong()).isEqualTo(antes.get("total").asLong() + 1);
+		assertThat(despues.get("creadosRecientes").asLong()).isEqualTo(antes.get("creadosRecientes").asLong() + 1);
+		assertThat(despues.path("porDominio").path("estadisticas.test").asLong()).isEqualTo(1);
+		assertThat(reconciliadas.get("total")).isEqualTo(despues.get("total"));
+		assertThat(reconciliadas.get("porDominio")).isEqualTo(despues.get("porDominio"));
+	}
+
+	//El If-Match del PUT se comprueba contra la fila aunque la cache tenga una version atrasada, y el POST
+	//ignora el id y la version que envie el cliente
+	@Test
+	void testIfMatchContraLaBaseDeDatos() throws Exception {
+		JsonNode creado = objectMapper.readTree(mockMvc.perform(post("/api/empleados")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"nombre\":\"Marta\",\"apellido\":\"Gil\",\"email\":\"marta.ifmatch@gmail.com\"}"))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getContentAsString());
+		long id = creado.get("id").asLong();
+		mockMvc.perform(get("/api/empleados/{id}", id)).andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+		//Otro nodo la actualiza: la cache de este sigue con la version 0
+		jdbcTemplate.update("update empleados set version = version + 1 where id = ?", id);
+		String cuerpo = "{\"nombre\":\"Marta\",\"apellido\":\"Gil Ruiz\",\"email\":\"marta.ifmatch@gmail.com\"}";
+
+		mockMvc.perform(put("/api/empleados/{id}", id)
+						.header(HttpHeaders.IF_MATCH, "\"0\"")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(cuerpo))
+				.andExpect(status().isPreconditionFailed());
+		mockMvc.perform(put("/api/empleados/{id}", id)
+						.header(HttpHeaders.IF_MATCH, "\"1\"")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(cuerpo))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+		mockMvc.perform(post("/api/empleados")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"id\":" + id + ",\"version\":2,\"nombre\":\"Otra\",\"apellido\":\"Persona\",\"email\":\"otra.ifmatch@gmail.com\"}"))
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$.id").value(not((int) id)));
+
+		assertThat(jdbcTemplate.queryForObject("select apellido from empleados where id = ?", String.class, id))
+				.isEqualTo("Gil Ruiz");
+	}
 }
@@ -1,16 +1,37 @@
 package com.pruebasUnitariasB.ApiRest.Service;
 
+import com.pruebasUnitariasB.ApiRest.cache.EmpleadoCache;
+import com.pruebasUnitariasB.ApiRest.cache.IndiceEmails;
+import com.pruebasUnitariasB.ApiRest.cache.VersionColeccion;
+import com.pruebasUnitariasB.ApiRest.cambios.RegistroCambios;
+import com.pruebasUnitariasB.ApiRest.dto.CampoBusqueda;
+import com.pruebasUnitariasB.ApiRest.dto.CursorBusqueda;
+import com.pruebasUnitariasB.ApiRest.dto.EmailEmpleado;
+import com.pruebasUnitariasB.ApiRest.dto.EmpleadoResumen;
+import com.pruebasUnitariasB.ApiRest.dto.Pagina;
+import com.pruebasUnitariasB.ApiRest.dto.ResultadoActualizacion;
+import com.pruebasUnitariasB.ApiRest.dto.ResultadoLote;
+import com.pruebasUnitariasB.ApiRest.entity.CambioEmpleado;
 import com.pruebasUnitariasB.ApiRest.entity.Empleado;
+import com.pruebasUnitariasB.ApiRest.estadisticas.ContadoresEmpleados;
 import com.pruebasUnitariasB.ApiRest.exception.ResourceNotFoundException;
 import com.pruebasUnitariasB.ApiRest.repository.EmpleadoRepository;
 import com.pruebasUnitariasB.ApiRest.service.Impl.EmpleadoServiceImpl;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.BDDMockito.willDoNothing;
@@ -18,9 +39,14 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 //Esta anotacion sirve para indicarle que vamos a trabajar con mockito, asi como para indicarle que vamos a trabajar
 //con unas extensiones de JUnit5
@@ -34,6 +60,27 @@ public class EmpleadoServiceTests {
     @Mock
     private EmpleadoRepository empleadoRepository;
 
+    //El EntityManager se simula para poder verificar que el stream va separando (detach) cada empleado ya escrito
+    @Mock
+    private EntityManager entityManager;
+
+    //La cache es real (@Spy) para que los tests comprueben cuantas veces se llega al repositorio
+    @Spy
+    private EmpleadoCache empleadoCache = new EmpleadoCache(100, Duration.ofMinutes(5));
+
+    //Mientras el indice no se carga, el servicio siempre consulta findByEmail como antes
+    @Spy
+    private IndiceEmails indiceEmails = new IndiceEmails();
+
+    @Spy
+    private VersionColeccion versionColeccion = new VersionColeccion();
+
+    @Mock
+    private RegistroCambios registroCambios;
+
+    @Mock
+    private ContadoresEmpleados contadoresEmpleados;
+
     //empleadoServiceImpl es una instancia de EmpleadoServiceImpl, y con @InjectMocks, Mockito intentará inyectar
     // automáticamente los mocks necesarios (en este caso, empleadoRepository) en los campos de esta clase.
     //@InjectMocks se utiliza para inyectar (o insertar) automáticamente mocks(los mocks son -> empleadoRepository)
@@ -82,6 +129,22 @@ public class EmpleadoServiceTests {
     }
 
 
+    @Test
+    @DisplayName("Test para guardar un empleado ignorando el id y la version enviados")
+    void TestGuardarEmpleadoIgnoraIdYVersion(){
+        //given
+        //Con el id de una fila existente, save haria un merge y la sobrescribiria
+        empleado.setVersion(4L);
+        given(empleadoRepository.findByEmail(empleado.getEmail())).willReturn(Optional.empty());
+        given(empleadoRepository.save(any(Empleado.class))).willAnswer(invocation -> invocation.getArgument(0));
+
+        //when
+        empleadoServiceImpl.guardarEmpleado(empleado);
+
+        //then
+        verify(empleadoRepository).save(argThat(guardado -> guardado.getId() == null && guardado.getVersion() == null));
+    }
+
     //En este segundo test, estás probando cómo se comporta tu servicio (empleadoServiceImpl) cuando intentas guardar
     // un empleado, pero el repositorio ya tiene un empleado con el mismo correo electrónico.
     @Test
@@ -183,15 +246,431 @@ public class EmpleadoServiceTests {
     @DisplayName("Test para eliminar un empleado")
     void testEliminarEmpleado(){
         //given
-        //WillDoNothing significa que no retornara nada simplemente se elminara
         long empleadoId = 1L;
-        willDoNothing().given(empleadoRepository).deleteById(empleadoId);
+        given(empleadoRepository.findEmailsParaEliminar(List.of(empleadoId)))
+                .willReturn(List.of(new EmailEmpleado(empleadoId, "gabriel@gmail.com")));
+        given(empleadoRepository.eliminarPorIds(List.of(empleadoId))).willReturn(1);
+
+        //when
+        boolean eliminado = empleadoServiceImpl.deleteEmpleado(empleadoId);
+
+        //then
+        assertThat(eliminado).isTrue();
+        verify(empleadoRepository, times(1)).eliminarPorIds(List.of(empleadoId));
+        verify(empleadoRepository, never()).findById(empleadoId);
+    }
+
+    @Test
+    @DisplayName("Test para no registrar nada al eliminar un empleado que no existe")
+    void testEliminarEmpleadoInexistente(){
+        //given
+        given(empleadoRepository.findEmailsParaEliminar(List.of(99L))).willReturn(List.of());
+
+        //when
+        boolean eliminado = empleadoServiceImpl.deleteEmpleado(99L);
+
+        //then
+        assertThat(eliminado).isFalse();
+        verify(empleadoRepository, never()).eliminarPorIds(anyCollection());
+        verify(registroCambios, never()).registrarEliminaciones(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Test para marcar como eliminado un empleado con el borrado logico activado")
+    void testEliminarEmpleadoLogico(){
+        //given
+        ReflectionTestUtils.setField(empleadoServiceImpl, "eliminacionLogica", true);
+        given(empleadoRepository.findEmailsParaEliminar(List.of(1L)))
+                .willReturn(List.of(new EmailEmpleado(1L, "gabriel@gmail.com")));
+        given(empleadoRepository.marcarEliminados(eq(List.of(1L)), any(Instant.class))).willReturn(1);
+
+        //when
+        boolean eliminado = empleadoServiceImpl.deleteEmpleado(1L);
+
+        //then
+        assertThat(eliminado).isTrue();
+        verify(empleadoRepository, never()).eliminarPorIds(anyCollection());
+        verify(registroCambios, times(1)).registrarEliminaciones(argThat(eliminados ->
+                eliminados.size() == 1 && "gabriel@gmail.com".equals(eliminados.iterator().next().getEmail())));
+    }
+
+    @Test
+    @DisplayName("Test para listar empleados paginados por cursor")
+    void testListarEmpleadosPaginados(){
+        //given
+        //Se piden 2 empleados, el repositorio devuelve 3 (limite + 1) para saber que existe una pagina siguiente
+        EmpleadoResumen empleado1 = new EmpleadoResumen(1L, "Gabriel", "Rodriguez", "gabriel@gmail.com", 0L);
+        EmpleadoResumen empleado2 = new EmpleadoResumen(2L, "Andres", "Perez", "andres@gmail.com", 0L);
+        EmpleadoResumen empleado3 = new EmpleadoResumen(3L, "Flor", "Gomez", "flor@gmail.com", 0L);
+        given(empleadoRepository.findResumenDesdeId(0L, PageRequest.of(0, 3)))
+                .willReturn(new ArrayList<>(List.of(empleado1, empleado2, empleado3)));
+
+        //when
+        Pagina<EmpleadoResumen> pagina = empleadoServiceImpl.getEmpleadosPaginados(null, 2);
+
+        //then
+        assertThat(pagina.getContenido()).hasSize(2);
+        assertThat(pagina.getSiguienteCursor()).isNotNull();
+        assertThat(Pagina.decodificarCursor(pagina.getSiguienteCursor())).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("Test para la ultima pagina sin cursor siguiente")
+    void testListarUltimaPaginaEmpleados(){
+        //given
+        given(empleadoRepository.findResumenDesdeId(1L, PageRequest.of(0, 3)))
+                .willReturn(Collections.emptyList());
+
+        //when
+        Pagina<EmpleadoResumen> pagina = empleadoServiceImpl.getEmpleadosPaginados(Pagina.codificarCursor(1L), 2);
+
+        //then
+        assertThat(pagina.getContenido()).isEmpty();
+        assertThat(pagina.getSiguienteCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Test para recorrer los empleados como stream")
+    void testStreamEmpleados(){
+        //given
+        given(empleadoRepository.streamAll()).willReturn(Stream.of(empleado));
+        List<Empleado> recibidos = new ArrayList<>();
+
+        //when
+        empleadoServiceImpl.streamEmpleados(recibidos::add);
+
+        //then
+        assertThat(recibidos).containsExactly(empleado);
+        verify(entityManager, times(1)).detach(empleado);
+    }
+
+    @Test
+    @DisplayName("Test para guardar empleados en lote con duplicados e invalidos")
+    void testGuardarEmpleadosEnLote(){
+        //given
+        //andrea@gmail.com ya existe en la base de datos, el segundo registro no tiene apellido y el tercero es nuevo
+        Empleado invalido = Empleado.builder().nombre("Sin").email("sin@gmail.com").build();
+        Empleado nuevo = Empleado.builder().nombre("Flor").apellido("Gomez").email("flor@gmail.com").build();
+        given(empleadoRepository.findEmailsExistentes(Set.of("andrea@gmail.com", "sin@gmail.com", "flor@gmail.com")))
+                .willReturn(Set.of("andrea@gmail.com"));
+        given(empleadoRepository.saveAll(List.of(nuevo))).willAnswer(invocation -> {
+            nuevo.setId(10L);
+            return List.of(nuevo);
+        });
+
+        //when
+        List<ResultadoLote> resultados = empleadoServiceImpl.guardarEmpleados(List.of(empleado, invalido, nuevo));
+
+        //then
+        //Cada registro tiene su propio resultado, en el mismo orden en el que fue enviado
+        assertThat(resultados).extracting(ResultadoLote::getEstado).containsExactly(
+                ResultadoLote.Estado.DUPLICADO, ResultadoLote.Estado.INVALIDO, ResultadoLote.Estado.CREADO);
+        assertThat(resultados.get(2).getId()).isEqualTo(10L);
+        verify(entityManager, times(1)).clear();
+    }
+
+    @Test
+    @DisplayName("Test para actualizar empleados en lote con emails repetidos e intercambiados")
+    void testActualizarEmpleadosEnLoteEmailsDelLote(){
+        //given
+        List<Empleado> actuales = new ArrayList<>();
+        for (long id = 1; id <= 4; id++) {
+            actuales.add(Empleado.builder().id(id).nombre("Nombre").apellido("Apellido")
+                    .email("empleado" + id + "@gmail.com").version(0L).build());
+        }
+        given(empleadoRepository.findAllById(Set.of(1L, 2L, 3L, 4L))).willReturn(actuales);
+        given(empleadoRepository.findEmailsExistentes(anySet()))
+                .willReturn(Set.of("empleado1@gmail.com", "empleado2@gmail.com"));
+        //El 1 y el 2 se intercambian el email; el 3 y el 4 quieren el mismo email nuevo
+        List<Empleado> cambios = List.of(
+                Empleado.builder().id(1L).nombre("Uno").apellido("Apellido").email("empleado2@gmail.com").build(),
+                Empleado.builder().id(2L).nombre("Dos").apellido("Apellido").email("empleado1@gmail.com").build(),
+                Empleado.builder().id(3L).nombre("Tres").apellido("Apellido").email("nuevo@gmail.com").build(),
+                Empleado.builder().id(4L).nombre("Cuatro").apellido("Apellido").email("nuevo@gmail.com").build());
+
+        //when
+        List<ResultadoLote> resultados = empleadoServiceImpl.actualizarEmpleados(cambios);
+
+        //then - cada conflicto se informa en su registro y el flush solo lleva el que no choca
+        assertThat(resultados).extracting(ResultadoLote::getEstado).containsExactly(
+                ResultadoLote.Estado.DUPLICADO, ResultadoLote.Estado.DUPLICADO,
+                ResultadoLote.Estado.ACTUALIZADO, ResultadoLote.Estado.DUPLICADO);
+        assertThat(actuales).extracting(Empleado::getEmail).containsExactly(
+                "empleado1@gmail.com", "empleado2@gmail.com", "nuevo@gmail.com", "empleado4@gmail.com");
+    }
+
+    @Test
+    @DisplayName("Test para rechazar en un lote la actualizacion con una version que no es la actual")
+    void testActualizarEmpleadosEnLoteConflictoVersion(){
+        //given
+        Empleado actual = Empleado.builder().id(1L).nombre("Andrea").apellido("Ramirez")
+                .email("andrea@gmail.com").version(3L).build();
+        given(empleadoRepository.findAllById(Set.of(1L))).willReturn(List.of(actual));
+        given(empleadoRepository.findEmailsExistentes(Set.of("andrea@gmail.com"))).willReturn(Set.of("andrea@gmail.com"));
+
+        //when
+        List<ResultadoLote> antigua = empleadoServiceImpl.actualizarEmpleados(List.of(Empleado.builder().id(1L)
+                .nombre("Vieja").apellido("Ramirez").email("andrea@gmail.com").version(2L).build()));
+        List<ResultadoLote> sinVersion = empleadoServiceImpl.actualizarEmpleados(List.of(Empleado.builder().id(1L)
+                .nombre("Nueva").apellido("Ramirez").email("andrea@gmail.com").build()));
+
+        //then - sin version se actualiza sin comprobarla, igual que el PUT individual sin If-Match
+        assertThat(antigua).extracting(ResultadoLote::getEstado).containsExactly(ResultadoLote.Estado.CONFLICTO_VERSION);
+        assertThat(sinVersion).extracting(ResultadoLote::getEstado).containsExactly(ResultadoLote.Estado.ACTUALIZADO);
+        assertThat(actual.getNombre()).isEqualTo("Nueva");
+    }
+
+    @Test
+    @DisplayName("Test para eliminar empleados en lote")
+    void testEliminarEmpleadosEnLote(){
+        //given
+        given(empleadoRepository.findEmailsParaEliminar(Set.of(1L, 2L)))
+                .willReturn(List.of(new EmailEmpleado(1L, "gabriel@gmail.com")));
+        given(empleadoRepository.eliminarPorIds(Set.of(1L))).willReturn(1);
+
+        //when
+        List<ResultadoLote> resultados = empleadoServiceImpl.eliminarEmpleados(List.of(1L, 2L));
+
+        //then
+        assertThat(resultados).extracting(ResultadoLote::getEstado).containsExactly(
+                ResultadoLote.Estado.ELIMINADO, ResultadoLote.Estado.NO_ENCONTRADO);
+    }
+
+    @Test
+    @DisplayName("Test para obtener un empleado por Id desde la cache")
+    void testObtenerEmpleadoPorIdDesdeCache(){
+        //given
+        given(empleadoRepository.findById(1L)).willReturn(Optional.of(empleado));
+
+        //when
+        Empleado primero = empleadoServiceImpl.getEmpleadoById(1L).get();
+        Empleado segundo = empleadoServiceImpl.getEmpleadoById(1L).get();
+
+        //then
+        //La segunda lectura no llega a la base de datos y cada llamada recibe su propia copia
+        verify(empleadoRepository, times(1)).findById(1L);
+        assertThat(segundo).isNotSameAs(primero);
+        assertThat(segundo.getEmail()).isEqualTo(empleado.getEmail());
+        assertThat(empleadoServiceImpl.getEstadisticasCache().getAciertos()).isEqualTo(1);
+        assertThat(empleadoServiceImpl.getEstadisticasCache().getFallos()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Test para invalidar la cache al eliminar un empleado")
+    void testEliminarEmpleadoInvalidaCache(){
+        //given
+        given(empleadoRepository.findById(1L)).willReturn(Optional.of(empleado), Optional.empty());
+        given(empleadoRepository.findEmailsParaEliminar(List.of(1L)))
+                .willReturn(List.of(new EmailEmpleado(1L, "gabriel@gmail.com")));
+        given(empleadoRepository.eliminarPorIds(List.of(1L))).willReturn(1);
+        empleadoServiceImpl.getEmpleadoById(1L);
 
         //when
-        empleadoServiceImpl.deleteEmpleado(empleadoId);
+        empleadoServiceImpl.deleteEmpleado(1L);
 
         //then
-        verify(empleadoRepository, times(1)).deleteById(empleadoId);
+        assertThat(empleadoServiceImpl.getEmpleadoById(1L)).isEmpty();
+        verify(empleadoRepository, times(2)).findById(1L);
     }
 
+    @Test
+    @DisplayName("Test para no dejar en la cache una actualizacion que no se confirma")
+    void testActualizarEmpleadoSinConfirmarNoEntraEnCache(){
+        //given
+        given(empleadoRepository.findById(1L)).willReturn(Optional.of(empleado));
+        given(empleadoRepository.save(any(Empleado.class))).willAnswer(invocacion -> invocacion.getArgument(0));
+        empleadoServiceImpl.getEmpleadoById(1L);
+        Empleado cambiado = empleado.toBuilder().nombre("Andrea Lucia").version(1L).build();
+
+        //when
+        //Se simula la transaccion del servicio: primero una que se revierte y despues otra que se confirma
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            empleadoServiceImpl.updateEmpleado(cambiado);
+            Optional<Empleado> durante = empleadoServiceImpl.getEmpleadoById(1L);
+            TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                    TransactionSynchronization.STATUS_ROLLED_BACK);
+            assertThat(durante).get().extracting(Empleado::getNombre).isEqualTo("Andrea");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        Optional<Empleado> trasRollback = empleadoServiceImpl.getEmpleadoById(1L);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            empleadoServiceImpl.updateEmpleado(cambiado);
+            TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                    TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        //then
+        assertThat(trasRollback).get().extracting(Empleado::getNombre).isEqualTo("Andrea");
+        assertThat(empleadoServiceImpl.getEmpleadoById(1L)).get().extracting(Empleado::getNombre).isEqualTo("Andrea Lucia");
+    }
+
+    @Test
+    @DisplayName("Test para guardar un empleado con un email nuevo sin consultar findByEmail")
+    void testGuardarEmpleadoConEmailNuevoSinConsulta(){
+        //given
+        //El indice ya esta cargado y no contiene el email, por lo tanto el SELECT previo no hace falta
+        indiceEmails.cargar(Stream.of("otro@gmail.com"));
+        given(empleadoRepository.save(empleado)).willReturn(empleado);
+
+        //when
+        Empleado empleado1 = empleadoServiceImpl.guardarEmpleado(empleado);
+
+        //then
+        assertThat(empleado1).isNotNull();
+        verify(empleadoRepository, never()).findByEmail(any());
+        assertThat(indiceEmails.esSeguroNuevo(empleado.getEmail())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Test para convertir la violacion del indice unico en email duplicado")
+    void testGuardarEmpleadoConViolacionIndiceUnico(){
+        //given
+        //Simula otra peticion concurrente que inserto el mismo email despues de la comprobacion
+        indiceEmails.cargar(Stream.empty());
+        given(empleadoRepository.save(empleado)).willThrow(new DataIntegrityViolationException(
+                "Unique index or primary key violation: \"PUBLIC.UX_EMPLEADOS_EMAIL_INDEX_A ON PUBLIC.EMPLEADOS(EMAIL)\""));
+
+        //when - then
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, ()->{
+            empleadoServiceImpl.guardarEmpleado(empleado);
+        });
+        assertThat(exception.getMessage()).isEqualTo("El empleado con ese email ya existe: andrea@gmail.com");
+    }
+
+    @DisplayName("Test para actualizar parcialmente un empleado con una version obsoleta")
+    @Test
+    void testActualizarParcialEmpleadoConflictoVersion(){
+        //given
+        //El UPDATE no toca ninguna fila pero el empleado existe, por lo que la version era la incorrecta
+        Empleado cambios = Empleado.builder().nombre("Nuevo").build();
+        given(empleadoRepository.actualizarParcial(1L, "Nuevo", null, null, 2L)).willReturn(0);
+        given(empleadoRepository.existsById(1L)).willReturn(true);
+
+        //when
+        ResultadoActualizacion resultado = empleadoServiceImpl.actualizarParcial(1L, cambios, 2L);
+
+        //then
+        assertThat(resultado.getEstado()).isEqualTo(ResultadoActualizacion.Estado.CONFLICTO_VERSION);
+        verify(empleadoRepository, never()).save(any(Empleado.class));
+    }
+
+    @DisplayName("Test para actualizar parcialmente un empleado sin leerlo antes")
+    @Test
+    void testActualizarParcialEmpleado(){
+        //given
+        Empleado cambios = Empleado.builder().nombre("Nuevo").build();
+        given(empleadoRepository.actualizarParcial(1L, "Nuevo", null, null, null)).willReturn(1);
+        //Sin version esperada la nueva se lee despues del UPDATE
+        given(empleadoRepository.findVersionById(1L)).willReturn(Optional.of(5L));
+
+        //when
+        ResultadoActualizacion resultado = empleadoServiceImpl.actualizarParcial(1L, cambios, null);
+
+        //then
+        assertThat(resultado.getEstado()).isEqualTo(ResultadoActualizacion.Estado.ACTUALIZADO);
+        assertThat(resultado.getVersion()).isEqualTo(5L);
+        verify(registroCambios).registrarParcial(1L, cambios, 5L, null);
+        verify(empleadoRepository, never()).findById(anyLong());
+        verify(empleadoCache).invalidar(1L);
+    }
+
+    @DisplayName("Test para cambiar la version del listado al guardar un empleado")
+    @Test
+    void testGuardarEmpleadoCambiaVersionColeccion(){
+        //given
+        long versionAnterior = empleadoServiceImpl.getVersionColeccion();
+        given(empleadoRepository.findByEmail(empleado.getEmail())).willReturn(Optional.empty());
+        given(empleadoRepository.save(empleado)).willReturn(empleado);
+
+        //when
+        empleadoServiceImpl.guardarEmpleado(empleado);
+
+        //then
+        assertThat(empleadoServiceImpl.getVersionColeccion()).isGreaterThan(versionAnterior);
+    }
+
+    @DisplayName("Test para no cambiar la version del listado si no se elimina ningun empleado")
+    @Test
+    void testEliminarEmpleadosInexistentesNoCambiaVersionColeccion(){
+        //given
+        long versionAnterior = empleadoServiceImpl.getVersionColeccion();
+        given(empleadoRepository.findEmailsParaEliminar(Set.of(7L))).willReturn(List.of());
+
+        //when
+        empleadoServiceImpl.eliminarEmpleados(List.of(7L));
+
+        //then
+        assertThat(empleadoServiceImpl.getVersionColeccion()).isEqualTo(versionAnterior);
+    }
+
+    @DisplayName("Test para buscar empleados por prefijo y devolver el cursor de la siguiente pagina")
+    @Test
+    void testBuscarEmpleadosPorPrefijo(){
+        //given
+        //El prefijo se normaliza a minusculas y el rango termina en el siguiente prefijo posible ("gab" -> "gac")
+        EmpleadoResumen empleado1 = new EmpleadoResumen(3L, "Gabriel", "Rodriguez", "gabriel@gmail.com", 0L);
+        EmpleadoResumen empleado2 = new EmpleadoResumen(8L, "Gabriela", "Rodriguez", "gabriela@gmail.com", 0L);
+        given(empleadoRepository.buscarPorNombre("gab", "gac", "gab", 0L, PageRequest.of(0, 2)))
+                .willReturn(List.of(empleado1, empleado2));
+
+        //when
+        Pagina<EmpleadoResumen> pagina = empleadoServiceImpl.buscarEmpleados(CampoBusqueda.NOMBRE, " GAB", null, 1);
+
+        //then
+        CursorBusqueda siguiente = CursorBusqueda.decodificar(pagina.getSiguienteCursor());
+        assertThat(pagina.getContenido()).containsExactly(empleado1);
+        assertThat(siguiente.getValor()).isEqualTo("gabriel");
+        assertThat(siguiente.getId()).isEqualTo(3L);
+    }
+
+    @DisplayName("Test para rechazar una busqueda con el prefijo vacio")
+    @Test
+    void testBuscarEmpleadosPrefijoVacio(){
+        //when - then
+        assertThrows(IllegalArgumentException.class, ()->{
+            empleadoServiceImpl.buscarEmpleados(CampoBusqueda.EMAIL, "  ", null, 10);
+        });
+        verify(empleadoRepository, never()).buscarPorEmail(any(), any(), any(), any(), any());
+    }
+
+    @DisplayName("Test para registrar en el feed de cambios el alta y la baja de un empleado")
+    @Test
+    void testRegistrarCambiosAlGuardarYEliminar(){
+        //given
+        Empleado guardado = empleado.toBuilder().version(0L).build();
+        given(empleadoRepository.findByEmail(empleado.getEmail())).willReturn(Optional.empty());
+        given(empleadoRepository.save(empleado)).willReturn(guardado);
+        given(empleadoRepository.findEmailsParaEliminar(List.of(guardado.getId())))
+                .willReturn(List.of(new EmailEmpleado(guardado.getId(), guardado.getEmail())));
+        given(empleadoRepository.eliminarPorIds(List.of(guardado.getId()))).willReturn(1);
+
+        //when
+        empleadoServiceImpl.guardarEmpleado(empleado);
+        empleadoServiceImpl.deleteEmpleado(guardado.getId());
+
+        //then
+        verify(registroCambios, times(1)).registrar(CambioEmpleado.Tipo.CREADO, guardado);
+        verify(registroCambios, times(1)).registrarEliminaciones(argThat(eliminados ->
+                eliminados.size() == 1 && empleado.getEmail().equals(eliminados.iterator().next().getEmail())));
+    }
+
+    @DisplayName("Test para registrar los campos enviados en una actualizacion parcial sin leer el empleado")
+    @Test
+    void testActualizarParcialRegistraCambio(){
+        //given
+        Empleado cambios = Empleado.builder().nombre("Andrea").build();
+        given(empleadoRepository.actualizarParcial(1L, "Andrea", null, null, 3L)).willReturn(1);
+
+        //when
+        empleadoServiceImpl.actualizarParcial(1L, cambios, 3L);
+
+        //then
+        verify(registroCambios, times(1)).registrarParcial(1L, cambios, 4L, null);
+        verify(empleadoRepository, never()).findById(anyLong());
+    }
 }
@@ -0,0 +1,115 @@
+package com.pruebasUnitariasB.ApiRest.admision;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//Los tiempos se pasan a mano para no depender del reloj
+public class ControlAdmisionTests {
+
+    private static final String LISTAR = "listEmpleados";
+    private static final String OBTENER = "obtenerEmpleadoPorId";
+
+    private ControlAdmision controlAdmision;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setup(){
+        controlAdmision = new ControlAdmision(10, 3, 1, 2, Set.of(LISTAR), 2, 1, Duration.ZERO, 1000);
+        meterRegistry = new SimpleMeterRegistry();
+        controlAdmision.bindTo(meterRegistry);
+    }
+
+    @DisplayName("Test para consumir la rafaga de un cliente y recuperar tokens con el tiempo")
+    @Test
+    void testCuboTokensPorCliente(){
+        //given
+        long ahora = 0;
+
+        //when
+        long primera = controlAdmision.consumirToken("cliente-a", OBTENER, ahora);
+        long segunda = controlAdmision.consumirToken("cliente-a", OBTENER, ahora);
+        long tercera = controlAdmision.consumirToken("cliente-a", OBTENER, ahora);
+        long cuarta = controlAdmision.consumirToken("cliente-a", OBTENER, ahora);
+        long otroCliente = controlAdmision.consumirToken("cliente-b", OBTENER, ahora);
+        long despues = controlAdmision.consumirToken("cliente-a", OBTENER, ahora + TimeUnit.MILLISECONDS.toNanos(100));
+
+        //then
+        assertThat(primera).isZero();
+        assertThat(segunda).isZero();
+        assertThat(tercera).isZero();
+        assertThat(cuarta).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(otroCliente).isZero();
+        assertThat(despues).isZero();
+        assertThat(meterRegistry.get(ControlAdmision.METRICA_RECHAZOS).tag("motivo", "tasa").counter().count()).isEqualTo(1);
+    }
+
+    @DisplayName("Test para aplicar el limite propio de los endpoints pesados")
+    @Test
+    void testCuboTokensEndpointPesado(){
+        //given
+        long ahora = 0;
+        controlAdmision.consumirToken("cliente-a", LISTAR, ahora);
+        controlAdmision.consumirToken("cliente-a", LISTAR, ahora);
+
+        //when
+        long espera = controlAdmision.consumirToken("cliente-a", LISTAR, ahora);
+        long otroEndpoint = controlAdmision.consumirToken("cliente-a", OBTENER, ahora);
+
+        //then
+        assertThat(espera).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+        assertThat(otroEndpoint).isZero();
+    }
+
+    @DisplayName("Test para rechazar peticiones por encima de la concurrencia maxima y liberar al salir")
+    @Test
+    void testConcurrenciaMaxima(){
+        //given
+        assertThat(controlAdmision.entrar(LISTAR)).isTrue();
+
+        //when
+        boolean segundaPesada = controlAdmision.entrar(LISTAR);
+        boolean primeraLigera = controlAdmision.entrar(OBTENER);
+        boolean segundaLigera = controlAdmision.entrar(OBTENER);
+        int enCurso = controlAdmision.enCurso();
+        controlAdmision.salir(LISTAR);
+        boolean trasSalir = controlAdmision.entrar(LISTAR);
+
+        //then
+        assertThat(segundaPesada).isFalse();
+        assertThat(primeraLigera).isTrue();
+        assertThat(segundaLigera).isFalse();
+        assertThat(enCurso).isEqualTo(2);
+        assertThat(trasSalir).isTrue();
+        assertThat(meterRegistry.get(ControlAdmision.METRICA_RECHAZOS).tag("motivo", "concurrencia").counters()).hasSize(2);
+    }
+
+    @DisplayName("Test para identificar al cliente por la IP salvo que se confie en la cabecera")
+    @Test
+    void testIdentificarCliente(){
+        //given
+        MockHttpServletRequest peticion = new MockHttpServletRequest();
+        peticion.setRemoteAddr("10.0.0.7");
+        peticion.addHeader("X-Cliente-Id", "inventado");
+        MockHttpServletRequest autenticada = new MockHttpServletRequest();
+        autenticada.setUserPrincipal(() -> "andrea");
+
+        //when
+        String sinConfianza = new IdentificacionCliente("X-Cliente-Id", false).cliente(peticion);
+        String conConfianza = new IdentificacionCliente("X-Cliente-Id", true).cliente(peticion);
+        String usuario = new IdentificacionCliente("X-Cliente-Id", false).cliente(autenticada);
+
+        //then
+        assertThat(sinConfianza).isEqualTo("10.0.0.7");
+        assertThat(conConfianza).isEqualTo("inventado");
+        assertThat(usuario).isEqualTo("usuario:andrea");
+    }
+}
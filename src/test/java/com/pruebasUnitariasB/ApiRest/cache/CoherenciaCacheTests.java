@@ -0,0 +1,133 @@
+package com.pruebasUnitariasB.ApiRest.cache;
+
+import com.pruebasUnitariasB.ApiRest.PruebasUnitariasBApplication;
+import com.pruebasUnitariasB.ApiRest.entity.CambioEmpleado;
+import com.pruebasUnitariasB.ApiRest.entity.Empleado;
+import com.pruebasUnitariasB.ApiRest.repository.CambioEmpleadoRepository;
+import com.pruebasUnitariasB.ApiRest.service.EmpleadoService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+//Varios nodos de la aplicacion en la misma JVM, cada uno con su contexto y su cache, sobre una misma base H2
+public class CoherenciaCacheTests {
+
+    private final List<ConfigurableApplicationContext> nodos = new ArrayList<>();
+
+    @AfterEach
+    void parar(){
+        nodos.forEach(ConfigurableApplicationContext::close);
+    }
+
+    private EmpleadoService arrancar(String canal, String baseDatos) {
+        ConfigurableApplicationContext nodo = new SpringApplicationBuilder(PruebasUnitariasBApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:" + baseDatos + ";DB_CLOSE_DELAY=-1",
+                        "--empleados.cache.coherencia.canal=" + canal,
+                        "--empleados.cache.coherencia.intervalo=PT0.1S",
+                        "--spring.main.banner-mode=off");
+        nodos.add(nodo);
+        return nodo.getBean(EmpleadoService.class);
+    }
+
+    private static boolean esperar(BooleanSupplier condicion, Duration maximo) throws InterruptedException {
+        long limite = System.nanoTime() + maximo.toNanos();
+        while (!condicion.getAsBoolean()) {
+            if (System.nanoTime() > limite) {
+                return false;
+            }
+            Thread.sleep(20);
+        }
+        return true;
+    }
+
+    private static Empleado empleado(String email) {
+        return Empleado.builder().nombre("Andrea").apellido("Ramirez").email(email).build();
+    }
+
+    @DisplayName("Test para invalidar la cache de otro nodo sondeando el outbox")
+    @Test
+    void testCoherenciaPorTabla() throws InterruptedException {
+        //given
+        EmpleadoService nodoA = arrancar("tabla", "coherencia_tabla");
+        EmpleadoService nodoB = arrancar("tabla", "coherencia_tabla");
+        Empleado empleado = nodoA.guardarEmpleado(empleado("tabla@gmail.com"));
+        assertThat(nodoB.getEmpleadoById(empleado.getId())).isPresent();
+        long versionListadoB = nodoB.getVersionColeccion();
+
+        //when
+        empleado.setNombre("Andrea Lucia");
+        nodoA.updateEmpleado(empleado);
+        boolean actualizado = esperar(() -> "Andrea Lucia".equals(nodoB.getEmpleadoById(empleado.getId()).get().getNombre()),
+                Duration.ofSeconds(5));
+        nodoA.deleteEmpleado(empleado.getId());
+        boolean eliminado = esperar(() -> nodoB.getEmpleadoById(empleado.getId()).isEmpty(), Duration.ofSeconds(5));
+
+        //then
+        assertThat(actualizado).isTrue();
+        assertThat(eliminado).isTrue();
+        assertThat(nodoB.getVersionColeccion()).isGreaterThan(versionListadoB);
+    }
+
+    @DisplayName("Test para invalidar al momento la cache de otro nodo con el canal en memoria")
+    @Test
+    void testCoherenciaPorCanalLocal(){
+        //given
+        EmpleadoService nodoA = arrancar("local", "coherencia_local");
+        EmpleadoService nodoB = arrancar("local", "coherencia_local");
+        Empleado empleado = nodoA.guardarEmpleado(empleado("local@gmail.com"));
+        nodoB.getEmpleadoById(empleado.getId());
+
+        //when
+        empleado.setNombre("Andrea Lucia");
+        nodoA.updateEmpleado(empleado);
+
+        //then
+        assertThat(nodoB.getEmpleadoById(empleado.getId())).get()
+                .extracting(Empleado::getNombre).isEqualTo("Andrea Lucia");
+    }
+
+    private static CambioEmpleado cambio(long orden, long empleadoId) {
+        CambioEmpleado cambio = CambioEmpleado.eliminado(empleadoId, null);
+        cambio.setSecuencia(orden * 50);
+        cambio.setOrden(orden);
+        return cambio;
+    }
+
+    @DisplayName("Test para invalidar un cambio que confirma despues de otros con orden mayor")
+    @Test
+    void testCambioConfirmadoTarde(){
+        //given
+        CambioEmpleadoRepository repositorio = mock(CambioEmpleadoRepository.class);
+        CanalInvalidacionesTabla canal = new CanalInvalidacionesTabla(repositorio, Duration.ofMinutes(1), 2);
+        List<List<Long>> invalidados = new ArrayList<>();
+        canal.suscribir(ids -> invalidados.add(List.copyOf(ids)));
+        given(repositorio.findUltimoOrden()).willReturn(0L);
+        //El 2 sigue en una transaccion abierta cuando se leen el 1 y el 3; el 4 llega en una segunda pagina
+        given(repositorio.findCambiosDesdeOrden(eq(0L), any())).willReturn(List.of(cambio(1, 10), cambio(3, 30)));
+        given(repositorio.findCambiosDesdeOrden(eq(3L), any())).willReturn(List.of(cambio(4, 40)));
+        given(repositorio.findCambiosDesdeOrden(eq(4L), any())).willReturn(List.of());
+        canal.sondear();
+        given(repositorio.findCambiosPorOrden(List.of(2L))).willReturn(List.of(cambio(2, 20)));
+
+        //when
+        canal.sondear();
+
+        //then
+        assertThat(invalidados).containsExactly(List.of(10L, 30L), List.of(40L), List.of(20L));
+    }
+}
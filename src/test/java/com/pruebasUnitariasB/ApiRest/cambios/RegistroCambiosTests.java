@@ -0,0 +1,134 @@
+package com.pruebasUnitariasB.ApiRest.cambios;
+
+import com.pruebasUnitariasB.ApiRest.dto.EmailEmpleado;
+import com.pruebasUnitariasB.ApiRest.entity.CambioEmpleado;
+import com.pruebasUnitariasB.ApiRest.entity.Empleado;
+import com.pruebasUnitariasB.ApiRest.repository.CambioEmpleadoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+//Las transacciones se simulan con TransactionSynchronizationManager: registrar dentro de una y despues
+//se ejecutan a mano sus sincronizaciones con el estado final
+@ExtendWith(MockitoExtension.class)
+public class RegistroCambiosTests {
+
+    @Mock
+    private CambioEmpleadoRepository cambioEmpleadoRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventos;
+
+    private RegistroCambios registroCambios;
+
+    @BeforeEach
+    void setup(){
+        registroCambios = new RegistroCambios(cambioEmpleadoRepository, eventos, Duration.ofSeconds(30));
+    }
+
+    @AfterEach
+    void limpiar(){
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static Empleado empleado(long id) {
+        return Empleado.builder().id(id).nombre("Nombre" + id).apellido("Apellido" + id)
+                .email("empleado" + id + "@gmail.com").version(0L).build();
+    }
+
+    //Registra dentro de una transaccion simulada y devuelve sus sincronizaciones sin ejecutarlas. Al salir se
+    //limpia el hilo como si la transaccion siguiera abierta en otro
+    private List<TransactionSynchronization> enTransaccion(Runnable cambios) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cambios.run();
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+            TransactionSynchronizationManager.unbindResourceIfPossible(registroCambios);
+        }
+    }
+
+    private static void terminar(List<TransactionSynchronization> transaccion, int estado) {
+        transaccion.forEach(sincronizacion -> sincronizacion.afterCompletion(estado));
+    }
+
+    private static CambioEmpleado cambio(long orden, Instant fecha) {
+        return CambioEmpleado.builder().orden(orden).empleadoId(orden).tipo(CambioEmpleado.Tipo.CREADO)
+                .fecha(fecha).build();
+    }
+
+    @DisplayName("Test para publicar los cambios solo cuando su transaccion confirma")
+    @Test
+    void testCambiosPublicadosTrasCommit(){
+        //given
+        given(cambioEmpleadoRepository.saveAll(anyList())).willAnswer(invocation -> invocation.getArgument(0));
+        List<TransactionSynchronization> deshecha = enTransaccion(
+                () -> registroCambios.registrar(CambioEmpleado.Tipo.CREADO, empleado(1)));
+        List<TransactionSynchronization> confirmada = enTransaccion(
+                () -> registroCambios.registrarEliminaciones(List.of(new EmailEmpleado(2L, null), new EmailEmpleado(3L, null))));
+
+        //when
+        terminar(deshecha, TransactionSynchronization.STATUS_ROLLED_BACK);
+        terminar(confirmada, TransactionSynchronization.STATUS_COMMITTED);
+
+        //then
+        ArgumentCaptor<CambiosConfirmados> publicados = ArgumentCaptor.forClass(CambiosConfirmados.class);
+        verify(eventos, times(1)).publishEvent(publicados.capture());
+        assertThat(publicados.getValue().cambios()).extracting(CambioEmpleado::getEmpleadoId).containsExactly(2L, 3L);
+    }
+
+    @DisplayName("Test para no saltarse un orden que falta mientras su transaccion puede confirmar")
+    @Test
+    void testLecturaSeDetieneEnHueco(){
+        //given
+        //El orden 3 es de una transaccion aun abierta: el 4 ya confirmo
+        Instant ahora = Instant.now();
+        given(cambioEmpleadoRepository.findCambiosDesdeOrden(anyLong(), any(Pageable.class)))
+                .willReturn(List.of(cambio(1, ahora), cambio(2, ahora), cambio(4, ahora)));
+
+        //when
+        List<CambioEmpleado> cambios = registroCambios.leer(0, 10);
+
+        //then
+        assertThat(cambios).extracting(CambioEmpleado::getOrden).containsExactly(1L, 2L);
+    }
+
+    @DisplayName("Test para saltarse un hueco de una transaccion que ya no puede confirmar")
+    @Test
+    void testHuecoAntiguoSeSalta(){
+        //given
+        //El 3 se escribio hace mas de espera-huecos: el 2 que falta es de una transaccion deshecha
+        Instant antiguo = Instant.now().minus(Duration.ofMinutes(1));
+        given(cambioEmpleadoRepository.findCambiosDesdeOrden(anyLong(), any(Pageable.class)))
+                .willReturn(List.of(cambio(3, antiguo), cambio(5, Instant.now())));
+
+        //when
+        List<CambioEmpleado> cambios = registroCambios.leer(1, 10);
+
+        //then
+        assertThat(cambios).extracting(CambioEmpleado::getOrden).containsExactly(3L);
+    }
+}
@@ -0,0 +1,143 @@
+package com.pruebasUnitariasB.ApiRest.cambios;
+
+import com.pruebasUnitariasB.ApiRest.entity.CambioEmpleado;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+
+//El registro es un mock que lee de una lista; el despachador y los envios usan sus hilos reales
+@ExtendWith(MockitoExtension.class)
+public class SuscripcionesCambiosTests {
+
+    @Mock
+    private RegistroCambios registroCambios;
+
+    private final List<CambioEmpleado> tabla = new CopyOnWriteArrayList<>();
+    private SuscripcionesCambios suscripcionesCambios;
+
+    @BeforeEach
+    void setup(){
+        given(registroCambios.ultimoOrden()).willReturn(0L);
+        given(registroCambios.leer(anyLong(), anyInt())).willAnswer(invocation -> {
+            long desde = invocation.getArgument(0);
+            int limite = invocation.getArgument(1);
+            return tabla.stream().filter(cambio -> cambio.getOrden() > desde).limit(limite).toList();
+        });
+        suscripcionesCambios = new SuscripcionesCambios(registroCambios, 10, 10, 4, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void detener(){
+        suscripcionesCambios.destroy();
+    }
+
+    //Cuenta los eventos enviados; si se le pasa un cerrojo, cada envio espera a que se abra
+    private static final class EmitterPrueba extends SseEmitter {
+        private final CountDownLatch liberar;
+        private final AtomicInteger enviados = new AtomicInteger();
+        private final CountDownLatch completado = new CountDownLatch(1);
+
+        EmitterPrueba(CountDownLatch liberar) {
+            this.liberar = liberar;
+        }
+
+        @Override
+        public void send(SseEventBuilder evento) throws IOException {
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            enviados.incrementAndGet();
+        }
+
+        @Override
+        public void complete() {
+            super.complete();
+            completado.countDown();
+        }
+    }
+
+    private void confirmar(int cuantos) {
+        for (int i = 0; i < cuantos; i++) {
+            long orden = tabla.size() + 1;
+            tabla.add(CambioEmpleado.builder().orden(orden).empleadoId(orden).tipo(CambioEmpleado.Tipo.CREADO)
+                    .fecha(Instant.now()).build());
+        }
+        suscripcionesCambios.alConfirmar(new CambiosConfirmados(List.of()));
+    }
+
+    private static void esperarHasta(BooleanSupplier condicion) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condicion.getAsBoolean() && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        assertThat(condicion.getAsBoolean()).isTrue();
+    }
+
+    @DisplayName("Test para cerrar una suscripcion lenta que llena su cola sin retrasar a las demas")
+    @Test
+    void testSuscripcionLentaSeDesborda() throws InterruptedException {
+        //given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        suscripcionesCambios.bindTo(registry);
+        CountDownLatch bloqueo = new CountDownLatch(1);
+        EmitterPrueba lenta = new EmitterPrueba(bloqueo);
+        EmitterPrueba rapida = new EmitterPrueba(new CountDownLatch(0));
+        suscripcionesCambios.abrir(lenta, 0);
+        suscripcionesCambios.abrir(rapida, 0);
+
+        //when
+        //La lenta se queda en su primer envio y no saca nada de su cola (capacidad 4): se desborda en la tercera ronda
+        for (int ronda = 1; ronda <= 3; ronda++) {
+            confirmar(2);
+            int esperados = ronda * 2;
+            esperarHasta(() -> rapida.enviados.get() == esperados);
+        }
+        esperarHasta(() -> suscripcionesCambios.abiertas() == 1);
+        bloqueo.countDown();
+
+        //then
+        assertThat(lenta.completado.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(rapida.completado.getCount()).isEqualTo(1);
+        assertThat(registry.get("empleados.cambios.desbordadas").functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @DisplayName("Test para que una suscripcion nueva lea de la tabla lo anterior y siga con lo repartido")
+    @Test
+    void testSuscripcionSePoneAlDia() throws InterruptedException {
+        //given
+        confirmar(4);
+        EmitterPrueba emitter = new EmitterPrueba(new CountDownLatch(0));
+
+        //when
+        suscripcionesCambios.abrir(emitter, 1);
+        esperarHasta(() -> emitter.enviados.get() == 3);
+        confirmar(2);
+
+        //then
+        esperarHasta(() -> emitter.enviados.get() == 5);
+    }
+}
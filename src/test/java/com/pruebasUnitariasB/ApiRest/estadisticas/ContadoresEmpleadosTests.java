@@ -0,0 +1,185 @@
+package com.pruebasUnitariasB.ApiRest.estadisticas;
+
+import com.pruebasUnitariasB.ApiRest.cambios.CambiosConfirmados;
+import com.pruebasUnitariasB.ApiRest.dto.ConteoDominio;
+import com.pruebasUnitariasB.ApiRest.dto.EstadisticasEmpleados;
+import com.pruebasUnitariasB.ApiRest.entity.CambioEmpleado;
+import com.pruebasUnitariasB.ApiRest.entity.Empleado;
+import com.pruebasUnitariasB.ApiRest.repository.EmpleadoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+//El reloj se avanza a mano: la ventana de una hora tiene cubetas de un minuto
+@ExtendWith(MockitoExtension.class)
+public class ContadoresEmpleadosTests {
+
+    @Mock
+    private EmpleadoRepository empleadoRepository;
+
+    private final AtomicLong reloj = new AtomicLong(Duration.ofDays(1).toMillis());
+    private ContadoresEmpleados contadores;
+
+    @BeforeEach
+    void setup(){
+        contadores = new ContadoresEmpleados(empleadoRepository, Duration.ofHours(1), reloj::get);
+    }
+
+    private static CambioEmpleado creado(long id, String email) {
+        return CambioEmpleado.de(CambioEmpleado.Tipo.CREADO, Empleado.builder().id(id).nombre("Nombre")
+                .apellido("Apellido").email(email).version(0L).build());
+    }
+
+    private void confirmar(CambioEmpleado... cambios) {
+        contadores.alConfirmar(new CambiosConfirmados(List.of(cambios)));
+    }
+
+    @DisplayName("Test para contar altas y bajas confirmadas sin consultar la base de datos")
+    @Test
+    void testContarCambiosConfirmados(){
+        //given
+        confirmar(creado(1, "ana@gmail.com"), creado(2, "luis@Empresa.pe"), creado(3, "eva@gmail.com"));
+
+        //when
+        confirmar(CambioEmpleado.eliminado(2L, "luis@Empresa.pe"));
+        EstadisticasEmpleados estadisticas = contadores.estadisticas();
+
+        //then - la baja resta del dominio del email que tenia el empleado
+        assertThat(estadisticas.getTotal()).isEqualTo(2);
+        assertThat(estadisticas.getPorDominio()).isEqualTo(Map.of("gmail.com", 2L));
+        assertThat(estadisticas.getCreadosRecientes()).isEqualTo(3);
+        assertThat(estadisticas.getEliminadosRecientes()).isEqualTo(1);
+        assertThat(estadisticas.getReconciliadoEn()).isNull();
+    }
+
+    @DisplayName("Test para mover un empleado de dominio al cambiar su email")
+    @Test
+    void testActualizarDominio(){
+        //given
+        confirmar(creado(1, "ana@gmail.com"), creado(2, "luis@gmail.com"));
+        CambioEmpleado actualizado = CambioEmpleado.actualizado(Empleado.builder().id(1L).nombre("Ana")
+                .apellido("Apellido").email("ana@empresa.pe").version(1L).build(), "ana@gmail.com");
+        CambioEmpleado parcialSinEmail = CambioEmpleado.actualizado(Empleado.builder().id(2L).nombre("Luis").build(),
+                null);
+        CambioEmpleado mismoDominio = CambioEmpleado.actualizado(Empleado.builder().id(2L).nombre("Luis")
+                .apellido("Apellido").email("luis.perez@Gmail.com").version(2L).build(), "luis@gmail.com");
+
+        //when
+        confirmar(actualizado, parcialSinEmail, mismoDominio);
+        EstadisticasEmpleados estadisticas = contadores.estadisticas();
+
+        //then
+        assertThat(estadisticas.getTotal()).isEqualTo(2);
+        assertThat(estadisticas.getPorDominio()).isEqualTo(Map.of("gmail.com", 1L, "empresa.pe", 1L));
+    }
+
+    @DisplayName("Test para dejar fuera de los recientes los cambios mas antiguos que la ventana")
+    @Test
+    void testVentanaDeRecientes(){
+        //given
+        confirmar(creado(1, "ana@gmail.com"));
+        reloj.addAndGet(Duration.ofMinutes(30).toMillis());
+        confirmar(creado(2, "luis@gmail.com"));
+
+        //when
+        long enLaVentana = contadores.estadisticas().getCreadosRecientes();
+        reloj.addAndGet(Duration.ofMinutes(31).toMillis());
+        long trasLaVentana = contadores.estadisticas().getCreadosRecientes();
+
+        //then
+        assertThat(enLaVentana).isEqualTo(2);
+        assertThat(trasLaVentana).isEqualTo(1);
+        assertThat(contadores.estadisticas().getTotal()).isEqualTo(2);
+    }
+
+    @DisplayName("Test para corregir los contadores con la reconciliacion contra la base de datos")
+    @Test
+    void testReconciliar(){
+        //given
+        //En la tabla el 1 ya no esta y hay dos empleados de empresa.pe que no llegaron como cambios (perfil reactivo)
+        confirmar(creado(1, "ana@gmail.com"), creado(2, "luis@gmail.com"), creado(5, "eva@otro.com"));
+        given(empleadoRepository.count()).willReturn(3L);
+        given(empleadoRepository.contarPorDominio()).willReturn(List.of(
+                new ConteoDominio("gmail.com", 1L), new ConteoDominio("empresa.pe", 2L)));
+
+        //when
+        contadores.reconciliar();
+        EstadisticasEmpleados estadisticas = contadores.estadisticas();
+
+        //then
+        assertThat(estadisticas.getTotal()).isEqualTo(3);
+        assertThat(estadisticas.getPorDominio()).isEqualTo(Map.of("gmail.com", 1L, "empresa.pe", 2L));
+        assertThat(estadisticas.getReconciliadoEn()).isNotNull();
+    }
+
+    @DisplayName("Test para aplazar la reconciliacion si se confirman cambios durante sus consultas")
+    @Test
+    void testReconciliarConCambiosConcurrentes(){
+        //given - el alta se confirma entre el count y el group by, no se sabe cual de los dos la ve
+        confirmar(creado(1, "ana@gmail.com"));
+        given(empleadoRepository.count()).willAnswer(invocacion -> {
+            confirmar(creado(2, "luis@gmail.com"));
+            return 1L;
+        });
+        given(empleadoRepository.contarPorDominio()).willReturn(List.of(new ConteoDominio("gmail.com", 2L)));
+
+        //when
+        contadores.reconciliar();
+        EstadisticasEmpleados estadisticas = contadores.estadisticas();
+
+        //then - se conservan los contadores de los cambios
+        assertThat(estadisticas.getTotal()).isEqualTo(2);
+        assertThat(estadisticas.getPorDominio()).isEqualTo(Map.of("gmail.com", 2L));
+        assertThat(estadisticas.getReconciliadoEn()).isNull();
+    }
+
+    @DisplayName("Test para no perder altas recientes cuando varios hilos rotan la misma cubeta")
+    @Test
+    void testRecientesConcurrentes() throws Exception {
+        //given
+        int hilos = 8;
+        int altasPorHilo = 2000;
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<?>> tareas = new ArrayList<>();
+
+        //when - cada alta avanza el reloj, asi las cubetas rotan mientras otros hilos suman
+        for (int h = 0; h < hilos; h++) {
+            long base = h * (long) altasPorHilo;
+            tareas.add(ejecutor.submit(() -> {
+                salida.await();
+                for (int i = 0; i < altasPorHilo; i++) {
+                    reloj.addAndGet(100);
+                    confirmar(creado(base + i, "ana@gmail.com"));
+                }
+                return null;
+            }));
+        }
+        salida.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(30, TimeUnit.SECONDS);
+        }
+        ejecutor.shutdown();
+
+        //then - los 1600 s de reloj caben en la ventana de una hora
+        assertThat(contadores.estadisticas().getCreadosRecientes()).isEqualTo((long) hilos * altasPorHilo);
+        assertThat(contadores.estadisticas().getTotal()).isEqualTo((long) hilos * altasPorHilo);
+    }
+}
@@ -0,0 +1,185 @@
+package com.pruebasUnitariasB.ApiRest.importacion;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pruebasUnitariasB.ApiRest.dto.ReporteImportacion;
+import com.pruebasUnitariasB.ApiRest.dto.ResultadoLote;
+import com.pruebasUnitariasB.ApiRest.entity.Empleado;
+import com.pruebasUnitariasB.ApiRest.service.EmpleadoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ImportadorEmpleadosTests {
+
+    @Mock
+    private EmpleadoService empleadoService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private ImportadorEmpleados importadorEmpleados;
+
+    private List<ReporteImportacion> reportes;
+
+    @BeforeEach
+    void setup(){
+        reportes = new ArrayList<>();
+        ReflectionTestUtils.setField(importadorEmpleados, "tamanioLote", 2);
+    }
+
+    //El servicio simulado valida como guardarEmpleados: sin nombre, apellido o email el empleado es INVALIDO
+    private void simularGuardado() {
+        willAnswer(invocation -> {
+            List<Empleado> empleados = invocation.getArgument(0);
+            List<ResultadoLote> resultados = new ArrayList<>();
+            for (int i = 0; i < empleados.size(); i++) {
+                Empleado empleado = empleados.get(i);
+                resultados.add(empleado.getNombre() == null || empleado.getApellido() == null || empleado.getEmail() == null
+                        ? ResultadoLote.error(i, null, ResultadoLote.Estado.INVALIDO, "nombre, apellido y email son obligatorios")
+                        : ResultadoLote.ok(i, 10L + i, ResultadoLote.Estado.CREADO));
+            }
+            return resultados;
+        }).given(empleadoService).guardarEmpleados(anyList());
+    }
+
+    private void importar(String contenido, FormatoImportacion formato) throws IOException {
+        importadorEmpleados.importar(new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8)), formato, reportes::add);
+    }
+
+    @Test
+    @DisplayName("Test para importar un CSV por lotes informando el progreso y las lineas con error")
+    void testImportarCsv() throws IOException{
+        //given
+        //Las columnas pueden venir en cualquier orden y los campos entre comillas pueden tener comas
+        simularGuardado();
+        String csv = "email,nombre,apellido\n" +
+                "ana@gmail.com,Ana,Perez\n" +
+                "luis@gmail.com,\"Luis, Jr\",Gomez\n" +
+                "\n" +
+                "sin-nombre@gmail.com,,Diaz\n";
+
+        //when
+        importar(csv, FormatoImportacion.CSV);
+
+        //then
+        //2 lotes: [ana, luis] y [sin-nombre]; el error apunta a la linea 5 del fichero
+        verify(empleadoService, times(2)).guardarEmpleados(anyList());
+        assertThat(reportes).extracting(ReporteImportacion::getTipo).containsExactly(
+                ReporteImportacion.Tipo.PROGRESO, ReporteImportacion.Tipo.ERROR, ReporteImportacion.Tipo.RESUMEN);
+        assertThat(reportes.get(1).getLinea()).isEqualTo(5L);
+        ReporteImportacion resumen = reportes.get(2);
+        assertThat(resumen.getLineas()).isEqualTo(3L);
+        assertThat(resumen.getCreados()).isEqualTo(2L);
+        assertThat(resumen.getErrores()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Test para importar NDJSON saltando las lineas que no son JSON")
+    void testImportarNdjson() throws IOException{
+        //given
+        simularGuardado();
+        String ndjson = "{\"nombre\":\"Ana\",\"apellido\":\"Perez\",\"email\":\"ana@gmail.com\"}\n" +
+                "{\"nombre\":\"Luis\",\n";
+
+        //when
+        importar(ndjson, FormatoImportacion.NDJSON);
+
+        //then
+        assertThat(reportes.get(0).getTipo()).isEqualTo(ReporteImportacion.Tipo.ERROR);
+        assertThat(reportes.get(0).getLinea()).isEqualTo(2L);
+        assertThat(reportes.get(1).getCreados()).isEqualTo(1L);
+        assertThat(reportes.get(1).getErrores()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Test para no importar un CSV sin las columnas obligatorias")
+    void testImportarCsvSinColumna() throws IOException{
+        //when
+        importar("nombre,apellido\nAna,Perez\n", FormatoImportacion.CSV);
+
+        //then
+        assertThat(reportes).extracting(ReporteImportacion::getTipo)
+                .containsExactly(ReporteImportacion.Tipo.ERROR, ReporteImportacion.Tipo.RESUMEN);
+        assertThat(reportes.get(0).getMensaje()).isEqualTo("Falta la columna email en la cabecera");
+        verifyNoInteractions(empleadoService);
+    }
+
+    @Test
+    @DisplayName("Test para reintentar fila a fila un lote que viola una restriccion")
+    void testImportarLoteConDuplicadoEnCarrera() throws IOException{
+        //given
+        //Cualquier guardado que lleve a luis falla entero, como el indice unico en el flush del lote
+        willAnswer(invocation -> {
+            List<Empleado> empleados = invocation.getArgument(0);
+            if (empleados.stream().anyMatch(empleado -> empleado.getEmail().equals("luis@gmail.com"))) {
+                throw new DataIntegrityViolationException("ux_empleados_email");
+            }
+            List<ResultadoLote> resultados = new ArrayList<>();
+            for (int i = 0; i < empleados.size(); i++) {
+                resultados.add(ResultadoLote.ok(i, 10L + i, ResultadoLote.Estado.CREADO));
+            }
+            return resultados;
+        }).given(empleadoService).guardarEmpleados(anyList());
+        String csv = "nombre,apellido,email\n" +
+                "Ana,Perez,ana@gmail.com\n" +
+                "Luis,Gomez,luis@gmail.com\n";
+
+        //when
+        importar(csv, FormatoImportacion.CSV);
+
+        //then
+        //El lote [ana, luis] falla y se reintenta: ana se guarda y el error apunta solo a la linea 3
+        verify(empleadoService, times(3)).guardarEmpleados(anyList());
+        List<ReporteImportacion> errores = reportes.stream()
+                .filter(reporte -> reporte.getTipo() == ReporteImportacion.Tipo.ERROR)
+                .toList();
+        assertThat(errores).extracting(ReporteImportacion::getLinea).containsExactly(3L);
+        ReporteImportacion resumen = reportes.get(reportes.size() - 1);
+        assertThat(resumen.getCreados()).isEqualTo(1L);
+        assertThat(resumen.getErrores()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Test para informar como error una linea mas larga que el maximo sin cargarla entera")
+    void testImportarLineaDemasiadoLarga() throws IOException{
+        //given
+        simularGuardado();
+        ReflectionTestUtils.setField(importadorEmpleados, "longitudMaximaLinea", 100);
+        String ndjson = "{\"nombre\":\"Ana\",\"apellido\":\"Perez\",\"email\":\"ana@gmail.com\"}\r\n" +
+                "{\"nombre\":\"" + "x".repeat(100_000) + "\"}\n" +
+                "{\"nombre\":\"Luis\",\"apellido\":\"Gomez\",\"email\":\"luis@gmail.com\"}";
+
+        //when
+        importar(ndjson, FormatoImportacion.NDJSON);
+
+        //then
+        //La primera linea termina en \r\n y la tercera no tiene salto final
+        assertThat(reportes.get(0).getTipo()).isEqualTo(ReporteImportacion.Tipo.ERROR);
+        assertThat(reportes.get(0).getLinea()).isEqualTo(2L);
+        assertThat(reportes.get(0).getMensaje()).isEqualTo("La linea supera los 100 caracteres");
+        ReporteImportacion resumen = reportes.get(reportes.size() - 1);
+        assertThat(resumen.getLineas()).isEqualTo(3L);
+        assertThat(resumen.getCreados()).isEqualTo(2L);
+        assertThat(resumen.getErrores()).isEqualTo(1L);
+    }
+}
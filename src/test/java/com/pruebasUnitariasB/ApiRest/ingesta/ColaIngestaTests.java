@@ -0,0 +1,227 @@
+package com.pruebasUnitariasB.ApiRest.ingesta;
+
+import com.pruebasUnitariasB.ApiRest.dto.EstadoIngesta;
+import com.pruebasUnitariasB.ApiRest.dto.ResultadoLote;
+import com.pruebasUnitariasB.ApiRest.entity.Empleado;
+import com.pruebasUnitariasB.ApiRest.service.EmpleadoService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.*;
+
+//Pruebas unitarias de la cola: el servicio es un mock y el hilo escritor es real
+@ExtendWith(MockitoExtension.class)
+public class ColaIngestaTests {
+
+    @Mock
+    private EmpleadoService empleadoService;
+
+    private ColaIngesta colaIngesta;
+
+    @AfterEach
+    void detener(){
+        if (colaIngesta != null && colaIngesta.isRunning()) {
+            colaIngesta.stop();
+        }
+    }
+
+    private ColaIngesta crearCola(int capacidad) {
+        return new ColaIngesta(empleadoService, capacidad, 100, Duration.ofMillis(10), 1000, Duration.ofHours(1),
+                Duration.ofSeconds(5));
+    }
+
+    private static Empleado empleado(int n) {
+        return Empleado.builder().nombre("Persona" + n).apellido("Apellido" + n).email("persona" + n + "@gmail.com").build();
+    }
+
+    //El servicio simulado crea todos los empleados del lote y les asigna ids consecutivos
+    private static List<ResultadoLote> crearTodos(List<Empleado> empleados) {
+        List<ResultadoLote> resultados = new ArrayList<>();
+        for (int i = 0; i < empleados.size(); i++) {
+            resultados.add(ResultadoLote.ok(i, 100L + i, ResultadoLote.Estado.CREADO));
+        }
+        return resultados;
+    }
+
+    @Test
+    @DisplayName("Test para guardar por lotes lo encolado y vaciar la cola al parar")
+    void testEncolarYGuardarAlParar(){
+        //given
+        willAnswer(invocation -> crearTodos(invocation.getArgument(0))).given(empleadoService).guardarEmpleados(anyList());
+        colaIngesta = crearCola(10);
+        colaIngesta.start();
+
+        //when
+        List<EstadoIngesta> encolados = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            encolados.add(colaIngesta.encolar(empleado(i)).orElseThrow());
+        }
+        colaIngesta.stop();
+
+        //then
+        //stop espera a que el escritor guarde todo lo pendiente, ningun alta queda sin procesar
+        assertThat(encolados).allMatch(estado -> estado.getEstado() == EstadoIngesta.Estado.PENDIENTE);
+        assertThat(colaIngesta.pendientes()).isZero();
+        for (EstadoIngesta encolado : encolados) {
+            assertThat(colaIngesta.estado(encolado.getSeguimiento()))
+                    .map(EstadoIngesta::getEstado)
+                    .contains(EstadoIngesta.Estado.CREADO);
+        }
+        verify(empleadoService, never()).guardarEmpleado(any(Empleado.class));
+    }
+
+    @Test
+    @DisplayName("Test para marcar como error solo el alta que viola una restriccion dentro de un lote")
+    void testLoteConUnDuplicado() throws InterruptedException{
+        //given
+        //El primer lote bloquea al escritor hasta que los siguientes estan en la cola y se guardan en un solo lote.
+        //El servicio rechaza entero cualquier lote que lleve a la persona 3, como haria el indice unico en el flush
+        CountDownLatch guardando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        List<Integer> tamanios = Collections.synchronizedList(new ArrayList<>());
+        willAnswer(invocation -> {
+            List<Empleado> empleados = invocation.getArgument(0);
+            tamanios.add(empleados.size());
+            guardando.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            if (empleados.stream().anyMatch(empleado -> empleado.getEmail().equals("persona3@gmail.com"))) {
+                throw new DataIntegrityViolationException("ux_empleados_email");
+            }
+            return crearTodos(empleados);
+        }).given(empleadoService).guardarEmpleados(anyList());
+        colaIngesta = crearCola(20);
+        colaIngesta.start();
+        colaIngesta.encolar(empleado(0)).orElseThrow();
+        assertThat(guardando.await(5, TimeUnit.SECONDS)).isTrue();
+        List<EstadoIngesta> encolados = new ArrayList<>();
+        for (int i = 1; i <= 8; i++) {
+            encolados.add(colaIngesta.encolar(empleado(i)).orElseThrow());
+        }
+
+        //when
+        liberar.countDown();
+        colaIngesta.stop();
+
+        //then
+        //El lote de 8 se parte hasta aislar a la persona 3; las demas altas se guardan
+        assertThat(tamanios.get(1)).isEqualTo(8);
+        for (int i = 0; i < encolados.size(); i++) {
+            assertThat(colaIngesta.estado(encolados.get(i).getSeguimiento()))
+                    .map(EstadoIngesta::getEstado)
+                    .contains(i + 1 == 3 ? EstadoIngesta.Estado.ERROR : EstadoIngesta.Estado.CREADO);
+        }
+    }
+
+    @Test
+    @DisplayName("Test para rechazar altas cuando la cola esta llena")
+    void testColaLlenaRechaza() throws InterruptedException{
+        //given
+        //El escritor se queda bloqueado guardando el primer empleado, el segundo ocupa la unica plaza de la cola
+        CountDownLatch guardando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        willAnswer(invocation -> {
+            guardando.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return crearTodos(invocation.getArgument(0));
+        }).given(empleadoService).guardarEmpleados(anyList());
+        colaIngesta = crearCola(1);
+        colaIngesta.start();
+        colaIngesta.encolar(empleado(1)).orElseThrow();
+        assertThat(guardando.await(5, TimeUnit.SECONDS)).isTrue();
+        colaIngesta.encolar(empleado(2)).orElseThrow();
+
+        //when
+        Optional<EstadoIngesta> rechazado = colaIngesta.encolar(empleado(3));
+
+        //then
+        assertThat(rechazado).isEmpty();
+        liberar.countDown();
+    }
+
+    @Test
+    @DisplayName("Test para marcar con error las altas de un lote que falla")
+    void testLoteConError(){
+        //given
+        given(empleadoService.guardarEmpleados(anyList())).willThrow(new IllegalStateException("Base de datos caida"));
+        colaIngesta = crearCola(10);
+        colaIngesta.start();
+
+        //when
+        EstadoIngesta encolado = colaIngesta.encolar(empleado(1)).orElseThrow();
+        colaIngesta.stop();
+
+        //then
+        EstadoIngesta estado = colaIngesta.estado(encolado.getSeguimiento()).orElseThrow();
+        assertThat(estado.getEstado()).isEqualTo(EstadoIngesta.Estado.ERROR);
+        assertThat(estado.getMensaje()).isEqualTo("Base de datos caida");
+    }
+
+    @Test
+    @DisplayName("Test para guardar todas las altas aceptadas mientras la cola se detiene")
+    void testEncolarMientrasSeDetiene() throws Exception {
+        //given
+        willAnswer(invocation -> crearTodos(invocation.getArgument(0))).given(empleadoService).guardarEmpleados(anyList());
+        //Caben todos los estados, asi ninguno se desaloja antes de comprobarlo
+        colaIngesta = new ColaIngesta(empleadoService, 20_000, 100, Duration.ofMillis(10), 20_000, Duration.ofHours(1),
+                Duration.ofSeconds(5));
+        colaIngesta.start();
+        List<EstadoIngesta> aceptados = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService productores = Executors.newFixedThreadPool(4);
+        for (int p = 0; p < 4; p++) {
+            productores.execute(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    colaIngesta.encolar(empleado(i)).ifPresent(aceptados::add);
+                }
+            });
+        }
+
+        //when
+        Thread.sleep(20);
+        colaIngesta.stop();
+        productores.shutdown();
+        assertThat(productores.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        //then - ninguna alta respondida con 202 se queda pendiente
+        assertThat(colaIngesta.pendientes()).isZero();
+        for (EstadoIngesta aceptado : aceptados) {
+            assertThat(colaIngesta.estado(aceptado.getSeguimiento()))
+                    .map(EstadoIngesta::getEstado)
+                    .contains(EstadoIngesta.Estado.CREADO);
+        }
+    }
+
+    @Test
+    @DisplayName("Test para no aceptar altas una vez detenida la cola")
+    void testNoAceptaDetenida(){
+        //given
+        colaIngesta = crearCola(10);
+        colaIngesta.start();
+        colaIngesta.stop();
+
+        //when
+        Optional<EstadoIngesta> rechazado = colaIngesta.encolar(empleado(1));
+
+        //then
+        assertThat(rechazado).isEmpty();
+        verifyNoInteractions(empleadoService);
+    }
+}
@@ -0,0 +1,105 @@
+package com.pruebasUnitariasB.ApiRest.replica;
+
+import com.pruebasUnitariasB.ApiRest.entity.Empleado;
+import com.pruebasUnitariasB.ApiRest.service.EmpleadoService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//Primaria y replica son dos bases H2 en memoria sin replicacion entre ellas: lo escrito solo esta en la primaria
+//y lo que se inserta a mano en la replica solo se ve al leer de ella
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replica_primaria;DB_CLOSE_DELAY=-1",
+        "empleados.replica.enabled=true",
+        "empleados.replica.datasource.jdbc-url=" + ReplicaTests.URL_REPLICA,
+        "empleados.replica.retraso-maximo=PT1M",
+        "empleados.admision.confiar-cabecera-cliente=true"
+})
+@AutoConfigureMockMvc
+public class ReplicaTests {
+
+    static final String URL_REPLICA = "jdbc:h2:mem:replica_lectura;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private EmpleadoService empleadoService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    @Qualifier("datosPrimaria")
+    private DataSource primaria;
+
+    @Autowired
+    @Qualifier("datosReplica")
+    private DataSource replica;
+
+    @BeforeAll
+    static void crearEsquemaReplica(){
+        Flyway.configure().dataSource(URL_REPLICA, "gabriel", "gabriel").load().migrate();
+    }
+
+    private static long contar(DataSource dataSource, String email) {
+        return new JdbcTemplate(dataSource).queryForObject("select count(*) from empleados where email = ?", Long.class, email);
+    }
+
+    @DisplayName("Test para escribir en la primaria y leer de la replica")
+    @Test
+    void testEscrituraEnPrimariaYLecturaEnReplica(){
+        //given
+        new JdbcTemplate(replica).update("insert into empleados (id, nombre, apellido, email, version) values (?, ?, ?, ?, 0)",
+                100_000L, "Lucia", "Torres", "solo.replica@gmail.com");
+
+        //when
+        Empleado guardado = empleadoService.guardarEmpleado(Empleado.builder()
+                .nombre("Andrea").apellido("Ramirez").email("primaria@gmail.com").build());
+
+        //then
+        assertThat(contar(primaria, "primaria@gmail.com")).isEqualTo(1);
+        assertThat(contar(replica, "primaria@gmail.com")).isZero();
+        assertThat(empleadoService.getEmpleadoById(100_000L)).isPresent();
+        assertThat(empleadoService.getAllEmpleados()).extracting(Empleado::getEmail)
+                .contains("solo.replica@gmail.com")
+                .doesNotContain(guardado.getEmail());
+    }
+
+    @DisplayName("Test para leer de la primaria tras escribir solo si el cliente pide ver sus escrituras")
+    @Test
+    void testLeerLasPropiasEscrituras() throws Exception {
+        //given
+        mockMvc.perform(post("/api/empleados")
+                        .header("X-Cliente-Id", "escritor")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\":\"Andrea\",\"apellido\":\"Ramirez\",\"email\":\"propia@gmail.com\"}"))
+                .andExpect(status().isCreated());
+
+        //when - then
+        mockMvc.perform(get("/api/empleados").header("X-Cliente-Id", "escritor"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].email", hasItem("propia@gmail.com")));
+        mockMvc.perform(get("/api/empleados").header("X-Cliente-Id", "escritor").header("X-Leer-Escrituras", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].email", not(hasItem("propia@gmail.com"))));
+        mockMvc.perform(get("/api/empleados").header("X-Cliente-Id", "lector"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].email", not(hasItem("propia@gmail.com"))));
+    }
+}
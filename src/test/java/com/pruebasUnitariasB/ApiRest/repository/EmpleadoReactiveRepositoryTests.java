@@ -0,0 +1,108 @@
+package com.pruebasUnitariasB.ApiRest.repository;
+
+import com.pruebasUnitariasB.ApiRest.config.ReactiveConfig;
+import com.pruebasUnitariasB.ApiRest.controller.EmpleadoReactiveController;
+import com.pruebasUnitariasB.ApiRest.entity.Empleado;
+import com.pruebasUnitariasB.ApiRest.service.Impl.EmpleadoReactiveServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.reactive.config.DelegatingWebFluxConfiguration;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//Solo la pila reactiva (repositorio, servicio y controlador) sobre su propia H2: el esquema lo crea Flyway por JDBC
+//y R2DBC ve la misma base. Sin JPA ni el resto de la aplicacion, que no intervienen y alargan mucho el arranque.
+//Sin transaccion de test: lo que escribe JdbcTemplate tiene que verse desde la conexion R2DBC
+@JdbcTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactiva_eliminacion;DB_CLOSE_DELAY=-1",
+        "empleados.r2dbc.url=r2dbc:pool:h2:mem:///reactiva_eliminacion?maxSize=5",
+        "empleados.eliminacion.logica=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({DelegatingWebFluxConfiguration.class, ReactiveConfig.class, EmpleadoReactiveRepository.class,
+        EmpleadoReactiveServiceImpl.class, EmpleadoReactiveController.class})
+@ActiveProfiles("reactive")
+public class EmpleadoReactiveRepositoryTests {
+
+    @Autowired
+    private EmpleadoReactiveRepository empleadoReactiveRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setup(){
+        webTestClient = WebTestClient.bindToApplicationContext(applicationContext).build();
+    }
+
+    @Test
+    @DisplayName("Test para eliminar un empleado con borrado logico desde la API reactiva")
+    void testEliminarEmpleadoConBorradoLogico(){
+        //given
+        Empleado empleado = empleadoReactiveRepository.insert(Empleado.builder()
+                .nombre("Andrea").apellido("Ramirez").email("andrea.reactiva@gmail.com").build()).block();
+
+        //when
+        webTestClient.delete().uri("/api/empleados/{id}", empleado.getId())
+                .exchange()
+                .expectStatus().isOk();
+
+        //then - la fila queda como lapida y ya no se ve ni se puede volver a eliminar
+        assertThat(jdbcTemplate.queryForObject("select count(*) from empleados where id = ? and eliminado_en is not null",
+                Long.class, empleado.getId())).isEqualTo(1L);
+        assertThat(empleadoReactiveRepository.findById(empleado.getId()).blockOptional()).isEmpty();
+        webTestClient.delete().uri("/api/empleados/{id}", empleado.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("Test para actualizar un empleado solo si su version no cambio desde la lectura")
+    void testActualizarConVersion(){
+        //given
+        Empleado empleado = empleadoReactiveRepository.insert(Empleado.builder()
+                .nombre("Lucia").apellido("Campos").email("lucia.reactiva@gmail.com").build()).block();
+        //Otro cliente lo actualiza dos veces por fuera
+        jdbcTemplate.update("update empleados set version = version + 2 where id = ?", empleado.getId());
+
+        //when
+        Optional<Empleado> obsoleto = empleadoReactiveRepository.update(empleado.toBuilder().nombre("Obsoleto").build())
+                .blockOptional();
+        Empleado actual = empleadoReactiveRepository.findById(empleado.getId()).block();
+        Empleado actualizado = empleadoReactiveRepository.update(actual.toBuilder().nombre("Lucia Maria").build()).block();
+
+        //then
+        assertThat(obsoleto).isEmpty();
+        assertThat(actualizado.getNombre()).isEqualTo("Lucia Maria");
+        assertThat(actualizado.getVersion()).isEqualTo(3L);
+        assertThat(empleadoReactiveRepository.findById(empleado.getId()).block().getVersion()).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("Test para eliminar un empleado que no existe desde la API reactiva")
+    void testEliminarEmpleadoInexistente(){
+        //when - then
+        webTestClient.delete().uri("/api/empleados/{id}", 987654L)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
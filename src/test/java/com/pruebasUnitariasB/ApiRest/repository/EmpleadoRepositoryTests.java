@@ -1,16 +1,25 @@
 package com.pruebasUnitariasB.ApiRest.repository;
 
+import com.pruebasUnitariasB.ApiRest.dto.ConteoDominio;
+import com.pruebasUnitariasB.ApiRest.dto.EmpleadoResumen;
 import com.pruebasUnitariasB.ApiRest.entity.Empleado;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 
 //Esta notacion nos sirve para probar componentes solo de la capa de persistencia, buscara solo las clases que tengan
@@ -23,6 +32,10 @@ public class EmpleadoRepositoryTests {
     @Autowired
     private EmpleadoRepository empleadoRepository;
 
+    //Las lapidas no se ven por el repositorio (@Where), se leen directamente de la tabla
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private Empleado empleado;
 
     //antes de cada metodo
@@ -124,4 +137,209 @@ public class EmpleadoRepositoryTests {
         //then
         assertThat(empleadoOptional).isEmpty();
     }
+
+    @Test
+    @DisplayName("Test para paginar empleados por cursor sobre el id")
+    void testPaginarEmpleadosPorCursor(){
+        //given
+        Empleado empleado1 = Empleado.builder()
+                .nombre("Fernando")
+                .apellido("Vargas")
+                .email("fernando@gmail.com")
+                .build();
+        empleadoRepository.save(empleado);
+        empleadoRepository.save(empleado1);
+
+        //when - se pide la pagina que empieza despues del primer empleado
+        List<EmpleadoResumen> pagina = empleadoRepository.findResumenDesdeId(empleado.getId(), PageRequest.of(0, 10));
+
+        //then
+        assertThat(pagina).hasSize(1);
+        assertThat(pagina.get(0).getEmail()).isEqualTo("fernando@gmail.com");
+    }
+
+    @Test
+    @DisplayName("Test para buscar en una sola consulta los emails que ya existen")
+    void testBuscarEmailsExistentes(){
+        //given
+        empleadoRepository.save(empleado);
+
+        //when
+        Set<String> existentes = empleadoRepository.findEmailsExistentes(Set.of("andrea@gmail.com", "nuevo@gmail.com"));
+
+        //then
+        assertThat(existentes).containsExactly("andrea@gmail.com");
+    }
+
+    @Test
+    @DisplayName("Test para eliminar varios empleados con una sola sentencia")
+    void testEliminarEmpleadosPorIds(){
+        //given
+        empleadoRepository.save(empleado);
+
+        //when
+        int eliminados = empleadoRepository.eliminarPorIds(Set.of(empleado.getId(), -1L));
+
+        //then
+        assertThat(eliminados).isEqualTo(1);
+        assertThat(empleadoRepository.findEmailsParaEliminar(Set.of(empleado.getId()))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Test para ocultar un empleado marcado como eliminado y borrarlo en la purga")
+    void testEliminarLogicoYPurgar(){
+        //given
+        empleadoRepository.save(empleado);
+        Instant fecha = Instant.now();
+
+        //when
+        int marcados = empleadoRepository.marcarEliminados(Set.of(empleado.getId(), -1L), fecha);
+        int marcadosOtraVez = empleadoRepository.marcarEliminados(Set.of(empleado.getId()), fecha);
+        Optional<Empleado> leido = empleadoRepository.findById(empleado.getId());
+        int antesDelLimite = empleadoRepository.purgarEliminados(fecha.minusSeconds(1), 10);
+        int purgados = empleadoRepository.purgarEliminados(fecha.plusSeconds(1), 10);
+
+        //then
+        assertThat(marcados).isEqualTo(1);
+        assertThat(marcadosOtraVez).isZero();
+        assertThat(leido).isEmpty();
+        assertThat(empleadoRepository.findEmailsParaEliminar(Set.of(empleado.getId()))).isEmpty();
+        assertThat(antesDelLimite).isZero();
+        assertThat(purgados).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Test para contar el email de un empleado eliminado como existente")
+    void testEmailDeEmpleadoEliminadoSigueExistiendo(){
+        //given
+        empleadoRepository.save(empleado);
+        empleadoRepository.marcarEliminados(Set.of(empleado.getId()), Instant.now());
+
+        //when
+        Set<String> existentes = empleadoRepository.findEmailsExistentes(Set.of("andrea@gmail.com", "otro@gmail.com"));
+        List<String> indexados = empleadoRepository.streamEmails().toList();
+
+        //then - el indice unico todavia lo rechazaria
+        assertThat(existentes).containsExactly("andrea@gmail.com");
+        assertThat(indexados).contains("andrea@gmail.com");
+    }
+
+    @Test
+    @DisplayName("Test para rechazar un email duplicado con el indice unico")
+    void testGuardarEmpleadoConEmailDuplicado(){
+        //given
+        empleadoRepository.save(empleado);
+        Empleado duplicado = Empleado.builder()
+                .nombre("Otra")
+                .apellido("Persona")
+                .email("andrea@gmail.com")
+                .build();
+
+        //when - then
+        assertThrows(DataIntegrityViolationException.class, ()->{
+            empleadoRepository.saveAndFlush(duplicado);
+        });
+    }
+
+    @Test
+    @DisplayName("Test para actualizar parcialmente un empleado con una sola sentencia")
+    void testActualizarParcialEmpleado(){
+        //given
+        empleadoRepository.saveAndFlush(empleado);
+        Long versionInicial = empleado.getVersion();
+
+        //when
+        //Solo se envia el nombre, el resto de columnas conserva su valor
+        int filas = empleadoRepository.actualizarParcial(empleado.getId(), "Andrea Lucia", null, null, versionInicial);
+
+        //then
+        Empleado actualizado = empleadoRepository.findById(empleado.getId()).get();
+        assertThat(filas).isEqualTo(1);
+        assertThat(actualizado.getNombre()).isEqualTo("Andrea Lucia");
+        assertThat(actualizado.getEmail()).isEqualTo("andrea@gmail.com");
+        assertThat(actualizado.getVersion()).isEqualTo(versionInicial + 1);
+    }
+
+    @Test
+    @DisplayName("Test para no actualizar un empleado con una version obsoleta")
+    void testActualizarParcialEmpleadoVersionObsoleta(){
+        //given
+        empleadoRepository.saveAndFlush(empleado);
+
+        //when
+        int filas = empleadoRepository.actualizarParcial(empleado.getId(), "Andrea Lucia", null, null, empleado.getVersion() + 1);
+
+        //then
+        assertThat(filas).isZero();
+        assertThat(empleadoRepository.findById(empleado.getId()).get().getNombre()).isEqualTo(empleado.getNombre());
+    }
+
+    @Test
+    @DisplayName("Test para no actualizar parcialmente un empleado eliminado")
+    void testActualizarParcialEmpleadoEliminado(){
+        //given
+        empleadoRepository.saveAndFlush(empleado);
+        empleadoRepository.marcarEliminados(Set.of(empleado.getId()), Instant.now());
+
+        //when
+        int filas = empleadoRepository.actualizarParcial(empleado.getId(), "Andrea Lucia", null, null, null);
+
+        //then - la lapida conserva sus datos
+        assertThat(filas).isZero();
+        assertThat(jdbcTemplate.queryForObject("select nombre from empleados where id = ?", String.class, empleado.getId()))
+                .isEqualTo("Andrea");
+    }
+
+    @Test
+    @DisplayName("Test para buscar empleados por prefijo del nombre sin distinguir mayusculas")
+    void testBuscarEmpleadosPorNombre(){
+        //given
+        empleadoRepository.save(empleado);
+        empleadoRepository.save(Empleado.builder().nombre("ANDRES").apellido("Lopez").email("andres@gmail.com").build());
+        empleadoRepository.save(Empleado.builder().nombre("Ana").apellido("Perez").email("ana@gmail.com").build());
+        empleadoRepository.flush();
+
+        //when
+        //El rango [and, ane) cubre todos los nombres que empiezan por "and"
+        List<EmpleadoResumen> empleados = empleadoRepository.buscarPorNombre("and", "ane", "and", 0L, PageRequest.of(0, 10));
+
+        //then
+        assertThat(empleados).extracting(EmpleadoResumen::getNombre).containsExactly("Andrea", "ANDRES");
+    }
+
+    @Test
+    @DisplayName("Test para continuar una busqueda desde el ultimo valor devuelto")
+    void testBuscarEmpleadosPorEmailDesdeCursor(){
+        //given
+        empleadoRepository.save(empleado);
+        empleadoRepository.save(Empleado.builder().nombre("Andres").apellido("Lopez").email("Andres@gmail.com").build());
+        empleadoRepository.flush();
+
+        //when
+        List<EmpleadoResumen> empleados = empleadoRepository.buscarPorEmail("andr", "ands", "andrea@gmail.com",
+                empleado.getId(), PageRequest.of(0, 10));
+
+        //then
+        assertThat(empleados).extracting(EmpleadoResumen::getEmail).containsExactly("Andres@gmail.com");
+    }
+
+    @Test
+    @DisplayName("Test para contar empleados por dominio sin contar los eliminados")
+    void testContarPorDominio(){
+        //given
+        empleadoRepository.save(empleado);
+        empleadoRepository.save(Empleado.builder().nombre("Andres").apellido("Lopez").email("andres@Empresa.pe").build());
+        Empleado eliminado = empleadoRepository.save(Empleado.builder().nombre("Ana").apellido("Perez")
+                .email("ana@empresa.pe").build());
+        empleadoRepository.flush();
+        empleadoRepository.marcarEliminados(Set.of(eliminado.getId()), Instant.now());
+
+        //when
+        List<ConteoDominio> conteos = empleadoRepository.contarPorDominio();
+
+        //then
+        assertThat(conteos).extracting(ConteoDominio::getDominio, ConteoDominio::getCuenta)
+                .containsExactlyInAnyOrder(tuple("gmail.com", 1L), tuple("empresa.pe", 1L));
+        assertThat(empleadoRepository.count()).isEqualTo(2);
+    }
 }